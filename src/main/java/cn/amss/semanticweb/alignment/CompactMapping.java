@@ -0,0 +1,238 @@
+/*
+ * CompactMapping.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.alignment;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.jena.rdf.model.Resource;
+
+import cn.amss.semanticweb.util.Dictionary;
+
+/**
+ * A compact set of mapping cells for large alignments, e.g. tens of millions of instance correspondences.
+ *
+ * The entities are interned as int identities, and each cell is kept as a row of primitive arrays
+ * (entity1, entity2, relation, confidence, hash) in the order of insertion, which is indexed by an
+ * open-addressing int table. The cells have the same equality as MappingCell, and they are created
+ * on the fly when iterated. Append-only and not thread-safe.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class CompactMapping implements Iterable<MappingCell>
+{
+  private final Dictionary<String> m_entities;
+
+  private int[] m_entity1;
+  private int[] m_entity2;
+  private byte[] m_relation;
+  private double[] m_confidence;
+  private int[] m_hash;
+  private int m_size = 0;
+
+  /**
+   * The index plus one of the cell in each slot, 0 means empty.
+   */
+  private int[] m_table;
+  private int m_mask;
+
+  public CompactMapping() {
+    this(16);
+  }
+
+  /**
+   * @param expected_size the expected number of cells
+   */
+  public CompactMapping(int expected_size) {
+    int capacity = 16;
+    while (capacity < expected_size * 2) {
+      capacity <<= 1;
+    }
+
+    int n = Math.max(expected_size, 1);
+    m_entities   = new Dictionary<>(n);
+    m_entity1    = new int[n];
+    m_entity2    = new int[n];
+    m_relation   = new byte[n];
+    m_confidence = new double[n];
+    m_hash       = new int[n];
+
+    m_table = new int[capacity];
+    m_mask  = capacity - 1;
+  }
+
+  private static int hash(int entity1, int entity2, int relation, double confidence) {
+    int h = entity1;
+    h = h * 31 + entity2;
+    h = h * 31 + relation;
+    h = h * 31 + Double.hashCode(confidence);
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int slot(int entity1, int entity2, int relation, double confidence, int h) {
+    int i = h & m_mask;
+    while (m_table[i] != 0) {
+      int c = m_table[i] - 1;
+      if (m_hash[c] == h && m_entity1[c] == entity1 && m_entity2[c] == entity2 &&
+          m_relation[c] == relation && m_confidence[c] == confidence) {
+        break;
+      }
+      i = (i + 1) & m_mask;
+    }
+    return i;
+  }
+
+  /**
+   * @param c the mapping cell with non-null entities
+   * @return true if the cell is new
+   */
+  public boolean add(MappingCell c) {
+    int entity1 = m_entities.intern(c.getEntity1());
+    int entity2 = m_entities.intern(c.getEntity2());
+    int relation = c.getRelation();
+    double confidence = c.getMeasure();
+
+    int h = hash(entity1, entity2, relation, confidence);
+    int i = slot(entity1, entity2, relation, confidence, h);
+    if (m_table[i] != 0) {
+      return false;
+    }
+
+    if (m_size == m_entity1.length) {
+      grow();
+    }
+
+    m_entity1[m_size]    = entity1;
+    m_entity2[m_size]    = entity2;
+    m_relation[m_size]   = (byte) relation;
+    m_confidence[m_size] = confidence;
+    m_hash[m_size]       = h;
+    m_table[i] = ++m_size;
+
+    if (m_size * 2 > m_table.length) {
+      rehash();
+    }
+    return true;
+  }
+
+  public boolean add(String entity1, String entity2) {
+    return add(new MappingCell(entity1, entity2));
+  }
+
+  public boolean add(Resource resource1, Resource resource2) {
+    return add(resource1.getURI(), resource2.getURI());
+  }
+
+  public boolean addAll(Iterable<MappingCell> m) {
+    boolean b_changed = false;
+    for (MappingCell c : m) {
+      b_changed |= add(c);
+    }
+    return b_changed;
+  }
+
+  public boolean contains(MappingCell c) {
+    int entity1 = m_entities.getId(c.getEntity1());
+    int entity2 = m_entities.getId(c.getEntity2());
+    if (entity1 < 0 || entity2 < 0) return false;
+
+    int relation = c.getRelation();
+    double confidence = c.getMeasure();
+    return m_table[slot(entity1, entity2, relation, confidence, hash(entity1, entity2, relation, confidence))] != 0;
+  }
+
+  public boolean contains(String entity1, String entity2) {
+    return contains(new MappingCell(entity1, entity2));
+  }
+
+  /**
+   * @param index the index of the cell in the order of insertion
+   * @return a new mapping cell
+   */
+  public MappingCell get(int index) {
+    if (index < 0 || index >= m_size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+    }
+    return new MappingCell(m_entities.get(m_entity1[index]), m_entities.get(m_entity2[index]),
+                           m_relation[index], m_confidence[index]);
+  }
+
+  public int size() {
+    return m_size;
+  }
+
+  public boolean isEmpty() {
+    return m_size == 0;
+  }
+
+  /**
+   * @return the number of distinct entities
+   */
+  public int getNumberOfEntities() {
+    return m_entities.size();
+  }
+
+  /**
+   * @return a mapping holding the same cells
+   */
+  public Mapping toMapping() {
+    Mapping m = new Mapping();
+    for (MappingCell c : this) {
+      m.add(c);
+    }
+    return m;
+  }
+
+  @Override
+  public Iterator<MappingCell> iterator() {
+    return new Iterator<MappingCell>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < m_size;
+      }
+
+      @Override
+      public MappingCell next() {
+        if (index >= m_size) {
+          throw new NoSuchElementException();
+        }
+        return get(index++);
+      }
+    };
+  }
+
+  private void grow() {
+    int n = m_size * 2;
+    m_entity1    = Arrays.copyOf(m_entity1,    n);
+    m_entity2    = Arrays.copyOf(m_entity2,    n);
+    m_relation   = Arrays.copyOf(m_relation,   n);
+    m_confidence = Arrays.copyOf(m_confidence, n);
+    m_hash       = Arrays.copyOf(m_hash,       n);
+  }
+
+  private void rehash() {
+    m_table = new int[m_table.length * 2];
+    m_mask  = m_table.length - 1;
+    for (int c = 0; c < m_size; ++c) {
+      int i = m_hash[c] & m_mask;
+      while (m_table[i] != 0) {
+        i = (i + 1) & m_mask;
+      }
+      m_table[i] = c + 1;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toMapping().toString();
+  }
+}
@@ -21,6 +21,11 @@ public class MappingCell extends Relation
   private Resource m_resource1 = null;
   private Resource m_resource2 = null;
 
+  /**
+   * The cached hash code, 0 means not computed yet.
+   */
+  private int m_hash = 0;
+
   public MappingCell(String entity1, String entity2, int relation, double confidence) {
     m_entity1  = entity1;
     m_entity2  = entity2;
@@ -135,7 +140,12 @@ public class MappingCell extends Relation
 
   @Override
   public int hashCode() {
-    return Objects.hash(m_entity1, m_entity2, m_relation, m_confidence);
+    int h = m_hash;
+    if (h == 0) {
+      h = Objects.hash(m_entity1, m_entity2, m_relation, m_confidence);
+      m_hash = h;
+    }
+    return h;
   }
 
   @Override
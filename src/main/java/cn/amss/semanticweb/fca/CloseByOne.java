@@ -0,0 +1,224 @@
+/*
+ * CloseByOne.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.fca;
+
+import java.util.Deque;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import cn.amss.semanticweb.util.Pair;
+
+/**
+ * Close-by-One: enumerate every closed set of a formal context exactly once.
+ *   Sergei O. Kuznetsov, A fast algorithm for computing all intersections of objects in a finite semi-lattice
+ *
+ * The items are one side of the context (objects or attributes) and the duals are the other side.
+ * A closed set of items is extended by one item greater than the last added one, closed again, and kept
+ * only if the closure adds no smaller item (canonicity test), so no closed set is generated twice.
+ * Extending items only grows the items and shrinks the duals, hence a branch whose items are more than
+ * the most size, or whose duals are less than the least size, is pruned before it is generated.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+final class CloseByOne
+{
+  private final IdSet[] duals_of_item;
+  private final IdSet[] items_of_dual;
+
+  /**
+   * The items owning at least one dual, and the duals owned by at least one item.
+   */
+  private final IdSet item_universe;
+  private final IdSet dual_universe;
+
+  private int least_items = 0, most_items = -1;
+  private int least_duals = 0, most_duals = -1;
+
+  /**
+   * @param duals_of_item the duals of each item, e.g. the rows when the items are objects
+   * @param items_of_dual the items of each dual, e.g. the columns when the items are objects
+   * @param item_universe the items which own at least one dual
+   * @param dual_universe the duals which are owned by at least one item
+   */
+  CloseByOne(IdSet[] duals_of_item, IdSet[] items_of_dual, IdSet item_universe, IdSet dual_universe) {
+    this.duals_of_item = duals_of_item;
+    this.items_of_dual = items_of_dual;
+    this.item_universe = item_universe;
+    this.dual_universe = dual_universe;
+  }
+
+  /**
+   * Bound the sizes of the closed sets, where the most size less than 0 indicates no most limit.
+   */
+  CloseByOne setItemsLeastMost(int least, int most) {
+    least_items = least;
+    most_items  = most;
+    return this;
+  }
+
+  CloseByOne setDualsLeastMost(int least, int most) {
+    least_duals = least;
+    most_duals  = most;
+    return this;
+  }
+
+  /**
+   * The closed sets are generated lazily in depth-first order, so the memory is proportional to the depth
+   * of the search rather than to the size of the lattice.
+   *
+   * @return the iterator over the pairs of closed items and their duals within the bounds
+   */
+  Iterator<Pair<IdSet, IdSet>> iterator() {
+    return new Iterator<Pair<IdSet, IdSet>>() {
+      private final Deque<Frame> stack = new ArrayDeque<>();
+      private Pair<IdSet, IdSet> next = null;
+      private boolean without_duals_done = false;
+
+      {
+        if (item_universe.isEmpty() || dual_universe.isEmpty()) {
+          without_duals_done = true;
+        } else {
+          IdSet root_items = closure(dual_universe);
+          if (!isPruned(root_items, dual_universe)) {
+            stack.push(new Frame(root_items, dual_universe, -1));
+            if (isWithin(root_items, dual_universe)) {
+              next = new Pair<>(root_items, dual_universe);
+            }
+          }
+        }
+        if (next == null) {
+          next = advance();
+        }
+      }
+
+      private Pair<IdSet, IdSet> advance() {
+        while (!stack.isEmpty()) {
+          Frame f = stack.peek();
+          if (f.k >= f.candidates.size()) {
+            stack.pop();
+            continue;
+          }
+
+          int i = f.candidates.get(f.k++);
+          if (f.items.contains(i)) continue;
+
+          IdSet next_duals = f.duals.intersect(duals_of_item[i]);
+          if (next_duals.size() < least_duals) continue;
+
+          IdSet next_items = closure(next_duals);
+          if (most_items >= 0 && next_items.size() > most_items) continue;
+
+          // NOTE: canonicity test, the closure must not add any item less than i.
+          if (next_items.rank(i) != f.items.rank(i)) continue;
+
+          stack.push(new Frame(next_items, next_duals, i));
+          if (isWithin(next_items, next_duals)) {
+            return new Pair<>(next_items, next_duals);
+          }
+        }
+
+        // NOTE: the closed set without duals is never reached by extending along shared duals.
+        if (!without_duals_done) {
+          without_duals_done = true;
+          if (isWithin(item_universe, IdSet.EMPTY) && sharedDuals(item_universe).isEmpty()) {
+            return new Pair<>(item_universe, IdSet.EMPTY);
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Pair<IdSet, IdSet> next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        Pair<IdSet, IdSet> current = next;
+        next = advance();
+        return current;
+      }
+    };
+  }
+
+  /**
+   * A closed set on the search stack, with the candidates left to extend it.
+   */
+  private class Frame
+  {
+    final IdSet items;
+    final IdSet duals;
+    final IdSet candidates;
+    int k;
+
+    Frame(IdSet items, IdSet duals, int last_item) {
+      this.items = items;
+      this.duals = duals;
+      // NOTE: every extension adds at least one item, which is hopeless when the items are already the most.
+      this.candidates = most_items >= 0 && items.size() >= most_items ? IdSet.EMPTY : candidates(duals);
+      this.k = this.candidates.rank(last_item + 1);
+    }
+  }
+
+  private boolean isPruned(IdSet items, IdSet duals) {
+    return (most_items >= 0 && items.size() > most_items) || duals.size() < least_duals;
+  }
+
+  private boolean isWithin(IdSet items, IdSet duals) {
+    return items.size() >= least_items && (most_items < 0 || items.size() <= most_items) &&
+           duals.size() >= least_duals && (most_duals < 0 || duals.size() <= most_duals);
+  }
+
+  /**
+   * @return the items which share at least one of the duals
+   */
+  private IdSet candidates(IdSet duals) {
+    if (duals.size() == 1) return items_of_dual[duals.get(0)];
+
+    int n = 0;
+    for (int j = 0; j < duals.size(); ++j) {
+      n += items_of_dual[duals.get(j)].size();
+    }
+
+    int[] items = new int[n];
+    n = 0;
+    for (int j = 0; j < duals.size(); ++j) {
+      IdSet s = items_of_dual[duals.get(j)];
+      for (int k = 0; k < s.size(); ++k) {
+        items[n++] = s.get(k);
+      }
+    }
+    return IdSet.of(items);
+  }
+
+  /**
+   * @return the items owning all of the non-empty duals
+   */
+  private IdSet closure(IdSet duals) {
+    IdSet items = items_of_dual[duals.get(0)];
+    for (int j = 1; j < duals.size() && !items.isEmpty(); ++j) {
+      items = items.intersect(items_of_dual[duals.get(j)]);
+    }
+    return items;
+  }
+
+  /**
+   * @return the duals shared by all of the non-empty items
+   */
+  private IdSet sharedDuals(IdSet items) {
+    IdSet duals = duals_of_item[items.get(0)];
+    for (int k = 1; k < items.size() && !duals.isEmpty(); ++k) {
+      duals = duals.intersect(duals_of_item[items.get(k)]);
+    }
+    return duals;
+  }
+}
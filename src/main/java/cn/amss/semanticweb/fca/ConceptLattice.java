@@ -7,6 +7,7 @@
 
 package cn.amss.semanticweb.fca;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
@@ -14,9 +15,12 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Arrays;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.Collections;
+
+import cn.amss.semanticweb.util.Dictionary;
 
 /**
  * A concept lattice.
@@ -103,28 +107,37 @@ public class ConceptLattice <O, A>
    * @param bottom no side effect
    */
   private void init(Set<Concept<O, A>> concepts, Concept<O, A> top, Concept<O, A> bottom) {
-    TreeSet<Concept<O, A>> tConcepts = new TreeSet<>(new Comparator<Concept<O, A>>() {
-      @Override
-      public int compare(Concept<O, A> a, Concept<O, A> b) {
-        Set<O> aExtent = a.getExtent();
-        Set<O> bExtent = b.getExtent();
-        if (aExtent.size() == bExtent.size()) {
-          Set<A> aIntent = a.getIntent();
-          Set<A> bIntent = b.getIntent();
-          if (aIntent.size() == bIntent.size()) {
-            return a.toString().compareTo(b.toString());
-          }
-          return aIntent.size() - bIntent.size();
-        }
+    // NOTE: sorted by the extent size (desc.), the intent size (asc.), the sorted extent, the sorted
+    //       intent and then the order of input, so that the identities are a linear extension of the
+    //       lattice from the top and do not depend on the iteration order of the input set.
+    List<Concept<O, A>> cs = new ArrayList<>(concepts);
+    final long[] keys = new long[cs.size()];
+    Integer[] order = new Integer[cs.size()];
+    List<Set<O>> extents = new ArrayList<>(cs.size());
+    List<Set<A>> intents = new ArrayList<>(cs.size());
+    for (int i = 0; i < keys.length; ++i) {
+      Concept<O, A> c = cs.get(i);
+      keys[i]  = ((long) (Integer.MAX_VALUE - c.getExtent().size()) << 31) | c.getIntent().size();
+      order[i] = i;
+      extents.add(c.getExtent());
+      intents.add(c.getIntent());
+    }
+    final int[][] extent_ranks = sortedRanks(extents);
+    final int[][] intent_ranks = sortedRanks(intents);
 
-        return bExtent.size() - aExtent.size();
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        int r = Long.compare(keys[a], keys[b]);
+        if (r == 0) r = compareRanks(extent_ranks[a], extent_ranks[b]);
+        if (r == 0) r = compareRanks(intent_ranks[a], intent_ranks[b]);
+        return r != 0 ? r : Integer.compare(a, b);
       }
     });
 
-    tConcepts.addAll(concepts);
-
     int idx = 0;
-    for (Concept<O, A> c : tConcepts) {
+    for (int i : order) {
+      Concept<O, A> c = cs.get(i);
       id2Concept.put(idx, c);
       concept2Id.put(c, idx);
       ++idx;
@@ -136,6 +149,72 @@ public class ConceptLattice <O, A>
     bottomId = concept2Id.getOrDefault(bottom, -2);
   }
 
+  /**
+   * An order of elements that does not depend on hashing: elements of the same comparable class
+   * follow their natural order, the others their class name and then their string form.
+   */
+  private static final Comparator<Object> ELEMENT_ORDER = new Comparator<Object>() {
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(Object a, Object b) {
+      if (a == b) return 0;
+      if (a == null) return -1;
+      if (b == null) return 1;
+      if (a.getClass() != b.getClass()) {
+        return a.getClass().getName().compareTo(b.getClass().getName());
+      }
+      if (a instanceof Comparable) {
+        return ((Comparable) a).compareTo(b);
+      }
+      return String.valueOf(a).compareTo(String.valueOf(b));
+    }
+  };
+
+  /**
+   * Replace each element by its rank among all the elements (by {@link #ELEMENT_ORDER}), equal
+   * elements sharing the same rank.
+   *
+   * @param sets the sets of elements
+   * @return the sorted ranks of each set
+   */
+  private static <T> int[][] sortedRanks(List<Set<T>> sets) {
+    Set<T> distinct = new HashSet<>();
+    for (Set<T> s : sets) {
+      distinct.addAll(s);
+    }
+    List<T> elements = new ArrayList<>(distinct);
+    Collections.sort(elements, ELEMENT_ORDER);
+
+    Map<T, Integer> rank = new HashMap<>();
+    int r = -1;
+    T prev = null;
+    for (int i = 0; i < elements.size(); ++i) {
+      T e = elements.get(i);
+      if (i == 0 || ELEMENT_ORDER.compare(prev, e) != 0) ++r;
+      rank.put(e, r);
+      prev = e;
+    }
+
+    int[][] ranks = new int[sets.size()][];
+    for (int i = 0; i < ranks.length; ++i) {
+      int[] rs = new int[sets.get(i).size()];
+      int k = 0;
+      for (T e : sets.get(i)) {
+        rs[k++] = rank.get(e);
+      }
+      Arrays.sort(rs);
+      ranks[i] = rs;
+    }
+    return ranks;
+  }
+
+  private static int compareRanks(int[] a, int[] b) {
+    for (int i = 0, n = Math.min(a.length, b.length); i < n; ++i) {
+      if (a[i] != b[i]) return Integer.compare(a[i], b[i]);
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
   /**
    * Check whether the concepts exist hierarchical direct order.
    *
@@ -189,9 +268,118 @@ public class ConceptLattice <O, A>
   }
 
   /**
-   * Build concept lattice from top to bottom.
+   * Build concept lattice from top to bottom, i.e. the cover relation (Hasse diagram).
+   *
+   * The covers are computed by iPred (Baixeries et al., 2009) over the intents as sets of int identities,
+   * which needs the top concept and the intents to be closed under intersection (e.g. all concepts of a context).
+   * Otherwise it falls back to the insertion from the top.
    */
   public void buildTopDown() {
+    topDown.clear();
+    if (!buildTopDownByPredecessors()) {
+      topDown.clear();
+      buildTopDownByInsertion();
+    }
+  }
+
+  /**
+   * @param upId the id of the up concept
+   * @param downId the id of the down concept
+   */
+  private void addCover(int upId, int downId) {
+    Set<Integer> childrenId = topDown.get(upId);
+    if (childrenId == null) {
+      topDown.put(upId, new HashSet<Integer>(Arrays.asList(downId)));
+    } else {
+      childrenId.add(downId);
+    }
+  }
+
+  /**
+   * iPred: the concepts are visited in the order of identities, which is a linear extension from the top.
+   * The upper covers of a concept are among the concepts whose intents are the intersections of its intent and
+   * the intents of the border (the visited concepts without lower covers yet). Such a concept is an upper cover
+   * unless its face (the attributes added by its known lower covers) meets the intent, which is confirmed by
+   * one of its known lower covers above the concept.
+   *
+   * @return false if the concepts are not closed under intersection of intents
+   */
+  private boolean buildTopDownByPredecessors() {
+    if (topId != 0 || numberOfConcepts == 0) return false;
+
+    Dictionary<A> attributes = new Dictionary<>();
+    IdSet[] intents = new IdSet[numberOfConcepts];
+    Map<IdSet, Integer> intent2Id = new HashMap<>(numberOfConcepts * 2);
+    for (int cId = 0; cId < numberOfConcepts; ++cId) {
+      Set<A> intent = id2Concept.get(cId).getIntent();
+      int[] ids = new int[intent.size()];
+      int n = 0;
+      for (A a : intent) {
+        ids[n++] = attributes.intern(a);
+      }
+      intents[cId] = IdSet.ofOwned(ids);
+
+      if (intent2Id.put(intents[cId], cId) != null) return false;
+    }
+
+    IdSet[] faces = new IdSet[numberOfConcepts];
+    Arrays.fill(faces, IdSet.EMPTY);
+
+    int[] visited = new int[numberOfConcepts];
+    Arrays.fill(visited, -1);
+
+    int[] border = new int[numberOfConcepts];
+    boolean[] covered = new boolean[numberOfConcepts];
+    int borderSize = 0;
+    border[borderSize++] = topId;
+
+    for (int cId = 1; cId < numberOfConcepts; ++cId) {
+      IdSet intent = intents[cId];
+
+      for (int k = 0; k < borderSize; ++k) {
+        Integer eId = intent2Id.get(intents[border[k]].intersect(intent));
+        if (eId == null || eId >= cId) return false;
+        if (visited[eId] == cId) continue;
+        visited[eId] = cId;
+
+        if (!faces[eId].intersects(intent) || !hasLowerCoverAbove(eId, intent, intents)) {
+          addCover(eId, cId);
+          faces[eId]   = faces[eId].union(intent.minus(intents[eId]));
+          covered[eId] = true;
+        }
+      }
+
+      int n = 0;
+      for (int k = 0; k < borderSize; ++k) {
+        if (!covered[border[k]]) {
+          border[n++] = border[k];
+        }
+      }
+      borderSize = n;
+      border[borderSize++] = cId;
+    }
+
+    return true;
+  }
+
+  /**
+   * @return true if one of the known lower covers of the concept is above (or equal to) the concept with the intent
+   */
+  private boolean hasLowerCoverAbove(int eId, IdSet intent, IdSet[] intents) {
+    Set<Integer> childrenId = topDown.get(eId);
+    if (childrenId == null) return false;
+
+    for (int childId : childrenId) {
+      if (intent.containsAll(intents[childId])) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Insert each concept by the breadth-first search from the top.
+   * Package-private for the benchmark against iPred.
+   */
+  void buildTopDownByInsertion() {
     Queue<Integer> parentIdQueue = new LinkedList<Integer>();
     for (int cId = 0; cId < numberOfConcepts; ++cId) {
       if (cId == topId) continue;
@@ -263,31 +451,12 @@ public class ConceptLattice <O, A>
    * @return a string of dot language
    */
   public String dotLangFormat() {
-    if (topDown == null || topDown.isEmpty()) return "graph { }";
-
     StringBuilder dotLanguage = new StringBuilder();
-    dotLanguage.append(String.format("%s {%n", "graph"));
-
-    for (Map.Entry<Integer, Concept<O, A>> e : id2Concept.entrySet()) {
-      // XXX: we should guarantee that e.getValue().toString() not has quotation mark (")
-      dotLanguage.append(String.format("  %d [label = \"%s\"];%n", e.getKey(), e.getValue().toString()));
+    try {
+      new ConceptLatticeExporter<O, A>(this).writeDot(dotLanguage);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to format the concept lattice.", e);
     }
-
-    for (Map.Entry<Integer, Set<Integer>> e : topDown.entrySet()) {
-      dotLanguage.append(String.format("  %d -- { ", e.getKey()));
-
-      for (Iterator<Integer> it = e.getValue().iterator(); it.hasNext(); ) {
-        dotLanguage.append(String.format("%d", it.next()));
-
-        if (it.hasNext()) {
-          dotLanguage.append(", ");
-        } else {
-          dotLanguage.append(String.format(" };%n"));
-        }
-      }
-    }
-    dotLanguage.append("}");
-
     return dotLanguage.toString();
   }
 
@@ -0,0 +1,311 @@
+/*
+ * ConceptLatticeExporter.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.fca;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.Arrays;
+
+/**
+ * Export a built concept lattice (see ConceptLattice.buildTopDown) node by node and edge by edge to an Appendable,
+ * e.g. a buffered writer, in DOT, GraphML or a compact edge list.
+ *
+ * The nodes can be restricted to the top levels (the least number of covers from a maximal concept) and to
+ * the bounds of extent and intent sizes. An edge is exported if both of its concepts are exported, so the
+ * edges between the exported concepts through the dropped ones are not added.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class ConceptLatticeExporter <O, A>
+{
+  private static final String NEWLINE = System.lineSeparator();
+
+  private final ConceptLattice<O, A> m_lattice;
+
+  private int m_max_level            = -1;
+  private int m_least_extent_size    = 0;
+  private int m_most_extent_size     = -1;
+  private int m_least_intent_size    = 0;
+  private int m_most_intent_size     = -1;
+
+  /**
+   * The exported concepts by identity, null means all of them.
+   */
+  private boolean[] m_selected = null;
+
+  public ConceptLatticeExporter(ConceptLattice<O, A> lattice) {
+    m_lattice = lattice;
+  }
+
+  /**
+   * @param max_level the most level of exported concepts, where the maximal concepts are of level 0, -1 means no limit
+   * @return this exporter
+   */
+  public ConceptLatticeExporter<O, A> setMaxLevel(int max_level) {
+    m_max_level = max_level;
+    m_selected  = null;
+    return this;
+  }
+
+  /**
+   * @param least the least size of extents
+   * @param most the most size of extents, -1 means no limit
+   * @return this exporter
+   */
+  public ConceptLatticeExporter<O, A> setExtentSizeBounds(int least, int most) {
+    m_least_extent_size = least;
+    m_most_extent_size  = most;
+    m_selected          = null;
+    return this;
+  }
+
+  /**
+   * @param least the least size of intents
+   * @param most the most size of intents, -1 means no limit
+   * @return this exporter
+   */
+  public ConceptLatticeExporter<O, A> setIntentSizeBounds(int least, int most) {
+    m_least_intent_size = least;
+    m_most_intent_size  = most;
+    m_selected          = null;
+    return this;
+  }
+
+  private static boolean within(int size, int least, int most) {
+    return size >= least && (most < 0 || size <= most);
+  }
+
+  private boolean[] selected() {
+    if (m_selected != null) return m_selected;
+
+    int n = m_lattice.numberOfConcepts;
+    boolean[] selected = new boolean[n];
+    for (int cId = 0; cId < n; ++cId) {
+      Concept<O, A> c = m_lattice.id2Concept.get(cId);
+      selected[cId] = within(c.getExtent().size(), m_least_extent_size, m_most_extent_size) &&
+                      within(c.getIntent().size(), m_least_intent_size, m_most_intent_size);
+    }
+
+    if (m_max_level >= 0) {
+      int[] level = levels(n);
+      for (int cId = 0; cId < n; ++cId) {
+        selected[cId] &= level[cId] >= 0 && level[cId] <= m_max_level;
+      }
+    }
+
+    m_selected = selected;
+    return selected;
+  }
+
+  /**
+   * Check whether the hierarchy is not built (or the lattice has no edge).
+   */
+  private boolean isEmpty() {
+    return m_lattice.topDown == null || m_lattice.topDown.isEmpty();
+  }
+
+  /**
+   * Breadth-first search from the maximal concepts (without upper covers).
+   */
+  private int[] levels(int n) {
+    int[] level = new int[n];
+    Arrays.fill(level, -1);
+
+    // NOTE: the lower covers of the virtual top (identity -1) of a lattice without its top concept are maximal.
+    boolean[] has_up = new boolean[n];
+    for (Map.Entry<Integer, Set<Integer>> e : m_lattice.topDown.entrySet()) {
+      if (e.getKey() < 0 || e.getKey() >= n) continue;
+
+      for (int childId : e.getValue()) {
+        if (childId >= 0 && childId < n) has_up[childId] = true;
+      }
+    }
+
+    int[] queue = new int[n];
+    int head = 0, tail = 0;
+    for (int cId = 0; cId < n; ++cId) {
+      if (!has_up[cId]) {
+        level[cId] = 0;
+        queue[tail++] = cId;
+      }
+    }
+
+    while (head < tail) {
+      int cId = queue[head++];
+      if (m_max_level >= 0 && level[cId] >= m_max_level) continue;
+
+      Set<Integer> children = m_lattice.topDown.get(cId);
+      if (children == null) continue;
+
+      for (int childId : children) {
+        if (level[childId] < 0) {
+          level[childId] = level[cId] + 1;
+          queue[tail++] = childId;
+        }
+      }
+    }
+    return level;
+  }
+
+  private boolean isRestricted() {
+    return m_max_level >= 0 || m_least_extent_size > 0 || m_most_extent_size >= 0 ||
+           m_least_intent_size > 0 || m_most_intent_size >= 0;
+  }
+
+  /**
+   * NOTE: without restriction, the virtual top (identity -1) of a lattice without its top concept is kept.
+   */
+  private boolean isSelected(int cId) {
+    if (!isRestricted()) return true;
+
+    boolean[] selected = selected();
+    return cId >= 0 && cId < selected.length && selected[cId];
+  }
+
+  /**
+   * @return true if the concept is a node of the lattice and exported
+   */
+  private boolean isExported(int cId) {
+    return cId >= 0 && cId < m_lattice.numberOfConcepts && isSelected(cId);
+  }
+
+  private static void appendEscaped(Appendable out, String s, boolean b_xml) throws IOException {
+    for (int i = 0; i < s.length(); ++i) {
+      char ch = s.charAt(i);
+      if (b_xml) {
+        switch (ch) {
+          case '&': out.append("&amp;");  break;
+          case '<': out.append("&lt;");   break;
+          case '>': out.append("&gt;");   break;
+          case '"': out.append("&quot;"); break;
+          default:  out.append(ch);
+        }
+      } else if (ch == '"' || ch == '\\') {
+        out.append('\\').append(ch);
+      } else {
+        out.append(ch);
+      }
+    }
+  }
+
+  /**
+   * Write the undirected graph in DOT language, the same as ConceptLattice.dotLangFormat() without restriction.
+   *
+   * @param out the output
+   * @throws IOException if failed to append
+   */
+  public void writeDot(Appendable out) throws IOException {
+    if (isEmpty()) {
+      out.append("graph { }");
+      return;
+    }
+
+    out.append("graph {").append(NEWLINE);
+
+    for (Map.Entry<Integer, Concept<O, A>> e : m_lattice.id2Concept.entrySet()) {
+      if (!isSelected(e.getKey())) continue;
+
+      out.append("  ").append(String.valueOf(e.getKey())).append(" [label = \"");
+      appendEscaped(out, e.getValue().toString(), false);
+      out.append("\"];").append(NEWLINE);
+    }
+
+    for (Map.Entry<Integer, Set<Integer>> e : m_lattice.topDown.entrySet()) {
+      if (!isSelected(e.getKey())) continue;
+
+      boolean b_first = true;
+      for (int childId : e.getValue()) {
+        if (!isSelected(childId)) continue;
+
+        if (b_first) {
+          out.append("  ").append(String.valueOf(e.getKey())).append(" -- { ");
+          b_first = false;
+        } else {
+          out.append(", ");
+        }
+        out.append(String.valueOf(childId));
+      }
+
+      if (!b_first) {
+        out.append(" };").append(NEWLINE);
+      }
+    }
+    out.append("}");
+  }
+
+  /**
+   * Write the directed graph (from the up concept to the down one) in GraphML,
+   * where each node has its label, extent size and intent size.
+   *
+   * @param out the output
+   * @throws IOException if failed to append
+   */
+  public void writeGraphML(Appendable out) throws IOException {
+    out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(NEWLINE);
+    out.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">").append(NEWLINE);
+    out.append("  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>").append(NEWLINE);
+    out.append("  <key id=\"extent\" for=\"node\" attr.name=\"extent_size\" attr.type=\"int\"/>").append(NEWLINE);
+    out.append("  <key id=\"intent\" for=\"node\" attr.name=\"intent_size\" attr.type=\"int\"/>").append(NEWLINE);
+    out.append("  <graph id=\"lattice\" edgedefault=\"directed\">").append(NEWLINE);
+
+    if (isEmpty()) {
+      out.append("  </graph>").append(NEWLINE);
+      out.append("</graphml>").append(NEWLINE);
+      return;
+    }
+
+    for (Map.Entry<Integer, Concept<O, A>> e : m_lattice.id2Concept.entrySet()) {
+      if (!isExported(e.getKey())) continue;
+
+      Concept<O, A> c = e.getValue();
+      out.append("    <node id=\"n").append(String.valueOf(e.getKey())).append("\">");
+      out.append("<data key=\"label\">");
+      appendEscaped(out, c.toString(), true);
+      out.append("</data>");
+      out.append("<data key=\"extent\">").append(String.valueOf(c.getExtent().size())).append("</data>");
+      out.append("<data key=\"intent\">").append(String.valueOf(c.getIntent().size())).append("</data>");
+      out.append("</node>").append(NEWLINE);
+    }
+
+    for (Map.Entry<Integer, Set<Integer>> e : m_lattice.topDown.entrySet()) {
+      if (!isExported(e.getKey())) continue;
+
+      for (int childId : e.getValue()) {
+        if (!isExported(childId)) continue;
+
+        out.append("    <edge source=\"n").append(String.valueOf(e.getKey()))
+           .append("\" target=\"n").append(String.valueOf(childId)).append("\"/>").append(NEWLINE);
+      }
+    }
+
+    out.append("  </graph>").append(NEWLINE);
+    out.append("</graphml>").append(NEWLINE);
+  }
+
+  /**
+   * Write the edges as the lines of "up down" concept identities.
+   *
+   * @param out the output
+   * @throws IOException if failed to append
+   */
+  public void writeEdgeList(Appendable out) throws IOException {
+    if (isEmpty()) return;
+
+    for (Map.Entry<Integer, Set<Integer>> e : m_lattice.topDown.entrySet()) {
+      if (!isExported(e.getKey())) continue;
+
+      String up = String.valueOf(e.getKey());
+      for (int childId : e.getValue()) {
+        if (!isExported(childId)) continue;
+
+        out.append(up).append(' ').append(String.valueOf(childId)).append('\n');
+      }
+    }
+  }
+}
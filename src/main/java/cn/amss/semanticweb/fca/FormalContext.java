@@ -0,0 +1,143 @@
+/*
+ * FormalContext.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.fca;
+
+import java.util.Arrays;
+
+/**
+ * A formal context over dense identities, where objects are numbered 0..n-1 and attributes 0..m-1.
+ * Both the rows (object to attributes) and the columns (attribute to objects) are kept as sorted id sets.
+ *
+ * A row is replaced in place (see setRow), and the context grows by empty rows and columns, which own
+ * nothing and are skipped like the objects without attributes, so the arrays may be longer than the identities in use.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+final class FormalContext
+{
+  private IdSet[] rows;
+  private IdSet[] columns;
+
+  /**
+   * Build the columns from the rows.
+   *
+   * @param rows the attributes of each object
+   * @param rows owned by this context afterwards
+   * @param number_of_attributes the number of attributes
+   */
+  FormalContext(IdSet[] rows, int number_of_attributes) {
+    this.rows = rows;
+
+    int[] sizes = new int[number_of_attributes];
+    for (IdSet r : rows) {
+      for (int i = 0; i < r.size(); ++i) {
+        ++sizes[r.get(i)];
+      }
+    }
+
+    int[][] ids = new int[number_of_attributes][];
+    for (int a = 0; a < number_of_attributes; ++a) {
+      ids[a] = new int[sizes[a]];
+      sizes[a] = 0;
+    }
+
+    for (int o = 0; o < rows.length; ++o) {
+      IdSet r = rows[o];
+      for (int i = 0; i < r.size(); ++i) {
+        int a = r.get(i);
+        ids[a][sizes[a]++] = o;
+      }
+    }
+
+    columns = new IdSet[number_of_attributes];
+    for (int a = 0; a < number_of_attributes; ++a) {
+      columns[a] = ids[a].length == 0 ? IdSet.EMPTY : new IdSet(ids[a]);
+    }
+  }
+
+  /**
+   * Grow the context by empty rows and columns, at least to the given numbers.
+   *
+   * @param number_of_objects the least number of objects
+   * @param number_of_attributes the least number of attributes
+   */
+  void ensureSize(int number_of_objects, int number_of_attributes) {
+    if (number_of_objects > rows.length) {
+      rows = grow(rows, number_of_objects);
+    }
+    if (number_of_attributes > columns.length) {
+      columns = grow(columns, number_of_attributes);
+    }
+  }
+
+  private static IdSet[] grow(IdSet[] sets, int n) {
+    int from = sets.length;
+    IdSet[] grown = Arrays.copyOf(sets, Math.max(n, from + (from >> 1)));
+    Arrays.fill(grown, from, grown.length, IdSet.EMPTY);
+    return grown;
+  }
+
+  /**
+   * Replace the attributes of an object, and move the object between the columns of the changed attributes.
+   *
+   * @param object the object id within the context
+   * @param row the new attributes within the context
+   * @return the old attributes
+   */
+  IdSet setRow(int object, IdSet row) {
+    IdSet old_row = rows[object];
+    rows[object] = row;
+
+    IdSet o = new IdSet(new int[] { object });
+
+    IdSet removed = old_row.minus(row);
+    for (int i = 0; i < removed.size(); ++i) {
+      int a = removed.get(i);
+      columns[a] = columns[a].minus(o);
+    }
+
+    IdSet added = row.minus(old_row);
+    for (int i = 0; i < added.size(); ++i) {
+      int a = added.get(i);
+      columns[a] = columns[a].union(o);
+    }
+    return old_row;
+  }
+
+  int getNumberOfObjects() {
+    return rows.length;
+  }
+
+  int getNumberOfAttributes() {
+    return columns.length;
+  }
+
+  /**
+   * @param object the object id
+   * @return the attributes of the object
+   */
+  IdSet row(int object) {
+    return rows[object];
+  }
+
+  /**
+   * @param attribute the attribute id
+   * @return the objects of the attribute
+   */
+  IdSet column(int attribute) {
+    return columns[attribute];
+  }
+
+  IdSet[] rows() {
+    return rows;
+  }
+
+  IdSet[] columns() {
+    return columns;
+  }
+}
@@ -11,8 +11,20 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import cn.amss.semanticweb.util.Pair;
 
@@ -20,399 +32,673 @@ import cn.amss.semanticweb.util.Pair;
  * Hermes: a simple and efficient algorithm for building the AOC-poset of a binary relation
  *   Anne Berry, Alain Gutierrez, Marianne Huchard, Amedeo Napoli, Alain Sigayret
  *
+ * The formal context is stored over dense int identities: each object row and each attribute column
+ * is a sorted id set, so that the clarification and domination relations are keyed by arrays with cached hashes.
+ *
+ * After compute, an object is added, changed or removed by addObject and removeObject, which update the relations
+ * of the touched rows and columns only, instead of computing the whole poset again. Not thread-safe.
+ *
  * @author Guowei Chen (icgw@outlook.com)
  */
 public class Hermes <O, A>
 {
-  private Map<Integer, Set<Integer>> object2Attributes = null;
-  private Map<Integer, Set<Integer>> attribute2Objects = null;
+  private FormalContext context = null;
 
-  private Map<Integer, O> object2O = null;
+  private List<O> object2O = null;
   private Map<O, Integer> O2Object = null;
 
-  private Map<Integer, A> attribute2A = null;
+  private List<A> attribute2A = null;
   private Map<A, Integer> A2Attribute = null;
 
-  private int dividing = 0;
+  /**
+   * The objects owning at least one attribute, and the attributes owned by at least one object.
+   */
+  private IdSet objects_with_attributes = IdSet.EMPTY;
+  private IdSet attributes_with_objects = IdSet.EMPTY;
+
+  /**
+   * True if the rows are updated since the above sets are built.
+   */
+  private boolean b_stale_universes = false;
+
+  /**
+   * Rc: Clarified Relation, intent to the objects which own exactly this intent.
+   */
+  private Map<IdSet, IdSet> clarified = null;
 
   /**
-   * Rc: Clarified Relation.
+   * Dom: Domination Relation, attributes sharing the same extent to the intent of their attribute concept.
    */
-  private Map<Set<Integer>, Set<Integer>> clarified = null;
+  private Map<IdSet, IdSet> domination = null;
 
   /**
-   * Dom: Domination Relation.
+   * The clarified attributes, extent to the attributes which own exactly this extent, i.e. the keys of Dom.
    */
-  private Map<Set<Integer>, Set<Integer>> domination = null;
+  private Map<IdSet, IdSet> attribute_classes = null;
 
   /**
    * Rces: The simplification of Rce, which is the juxtaposition of Rc with Dom.
+   * Intent to the pair of simplified extent and simplified intent.
    */
-  private Map<Set<Integer>, Set<Integer>> simplification = null;
+  private Map<IdSet, Pair<IdSet, IdSet>> simplification = null;
 
+  /**
+   * The executor of compute, null means the common fork/join pool.
+   */
+  private ExecutorService executor = null;
+
+  /**
+   * The least number of rows (or columns) worth a task of their own.
+   */
+  private static final int MIN_SLICE_SIZE = 1024;
 
   /**
    * Create new Hermes.
    */
   public Hermes() {
-    object2Attributes = new HashMap<Integer, Set<Integer>>();
-    attribute2Objects = new HashMap<Integer, Set<Integer>>();
-
-    object2O = new HashMap<>();
+    object2O = new ArrayList<>();
     O2Object = new HashMap<>();
 
-    attribute2A = new HashMap<>();
+    attribute2A = new ArrayList<>();
     A2Attribute = new HashMap<>();
   }
 
-  private final static <K, V> void add(Map<K, Set<V>> m, K k, V v) {
-    Set<V> s = m.get(k);
-    if (null != s) {
-      s.add(v);
-    } else {
-      m.put(k, new HashSet<V>(Arrays.asList(v)));
+  /**
+   * Create new Hermes, which computes on the given executor.
+   *
+   * @param executor the executor shared with other tasks, null means the common fork/join pool
+   */
+  public Hermes(ExecutorService executor) {
+    this();
+    this.executor = executor;
+  }
+
+  private int attributeId(A a) {
+    Integer id = A2Attribute.get(a);
+    if (id == null) {
+      id = attribute2A.size();
+      attribute2A.add(a);
+      A2Attribute.put(a, id);
     }
+    return id;
   }
 
-  private final static <K, V> void addAll(Map<K, Set<V>> m, K k, Set<V> v) {
-    Set<V> s = m.get(k);
-    if (null != s) {
-      s.addAll(v);
-    } else {
-      m.put(k, v);
+  public void init(Map<O, Set<A>> context) {
+    IdSet[] rows = new IdSet[context.size()];
+
+    int i = 0;
+    for (Map.Entry<O, Set<A>> r : context.entrySet()) {
+      object2O.add(r.getKey());
+      O2Object.put(r.getKey(), i);
+
+      int[] attributes = new int[r.getValue().size()];
+      int j = 0;
+      for (A a : r.getValue()) {
+        attributes[j++] = attributeId(a);
+      }
+      rows[i++] = IdSet.of(attributes);
     }
+
+    init(new FormalContext(rows, attribute2A.size()));
   }
 
   /**
-   * Initiate the map of attribute's id to objects' id and object's id to attributes' id.
+   * Init from a context which is already interned as int identities, e.g. by a dictionary of labels and tokens,
+   * so the objects and attributes are never rehashed.
    *
-   * @param relations add binary relation of formal context
-   * @param relations no side effect
+   * @param objects the distinct objects indexed by their identities
+   * @param attributes the distinct attributes indexed by their identities
+   * @param rows the attribute identities of each object, in any order and duplicates are allowed
+   * @param rows no side effect
    */
-  private void init(Set<Pair<Integer, Integer>> relations) {
-    for (Pair<Integer, Integer> pair : relations) {
-      int object_id = pair.getKey(), attribute_id = pair.getValue();
-
-      add(object2Attributes, object_id, attribute_id);
-      add(attribute2Objects, attribute_id, object_id);
+  public void init(List<O> objects, List<A> attributes, int[][] rows) {
+    if (objects.size() != rows.length) {
+      throw new IllegalArgumentException("The number of objects and rows are different.");
     }
-  }
 
-  public void init(Map<O, Set<A>> context) {
-    int i = 0;
-    for (O o : context.keySet()) {
-      object2O.put(i, o);
-      O2Object.put(o, i);
-      ++i;
+    IdSet[] id_rows = new IdSet[rows.length];
+    for (int i = 0; i < rows.length; ++i) {
+      checkAttributeIds(rows[i], 0, rows[i].length, attributes.size());
+      id_rows[i] = IdSet.of(rows[i]);
     }
 
-    dividing = i;
+    init(objects, attributes, id_rows);
+  }
 
-    Set<A> attributes = new HashSet<>();
-    for (Set<A> sa : context.values()) {
-      attributes.addAll(sa);
+  /**
+   * Init from a context in compressed sparse row (CSR) form, the attributes of object i are
+   * columns[row_offsets[i]] .. columns[row_offsets[i + 1] - 1].
+   *
+   * @param objects the distinct objects indexed by their identities
+   * @param attributes the distinct attributes indexed by their identities
+   * @param row_offsets the offsets of the rows, whose length is the number of objects plus one
+   * @param columns the attribute identities of all rows, in any order within a row and duplicates are allowed
+   * @param row_offsets no side effect
+   * @param columns no side effect
+   */
+  public void init(List<O> objects, List<A> attributes, int[] row_offsets, int[] columns) {
+    if (row_offsets.length != objects.size() + 1 || row_offsets[0] != 0 ||
+        row_offsets[objects.size()] > columns.length) {
+      throw new IllegalArgumentException("The row offsets do not match the objects and columns.");
     }
 
-    for (A a : attributes) {
-      attribute2A.put(i, a);
-      A2Attribute.put(a, i);
-      ++i;
+    IdSet[] id_rows = new IdSet[objects.size()];
+    for (int i = 0; i < id_rows.length; ++i) {
+      if (row_offsets[i] > row_offsets[i + 1]) {
+        throw new IllegalArgumentException("The row offsets are not increasing at " + i + ".");
+      }
+      checkAttributeIds(columns, row_offsets[i], row_offsets[i + 1], attributes.size());
+      id_rows[i] = IdSet.ofOwned(Arrays.copyOfRange(columns, row_offsets[i], row_offsets[i + 1]));
     }
 
-    Set<Pair<Integer, Integer>> relations = new HashSet<>();
-    for (Map.Entry<O, Set<A>> r : context.entrySet()) {
-      for (A a : r.getValue()) {
-        relations.add(new Pair<>(O2Object.get(r.getKey()), A2Attribute.get(a)));
-      }
+    init(objects, attributes, id_rows);
+  }
+
+  /**
+   * Init from the (object identity, attribute identity) pairs added to the builder.
+   *
+   * @param objects the distinct objects indexed by their identities
+   * @param attributes the distinct attributes indexed by their identities
+   * @param incidences the builder of the pairs, whose identities are within the objects and attributes
+   */
+  public void init(List<O> objects, List<A> attributes, IncidenceBuilder incidences) {
+    if (incidences.getNumberOfObjects() > objects.size() || incidences.getNumberOfAttributes() > attributes.size()) {
+      throw new IllegalArgumentException("The incidences are out of the objects or attributes.");
     }
 
-    init(relations);
+    init(objects, attributes, incidences.toRows(objects.size()));
   }
 
-  private static Map<Set<Integer>, Set<Integer>> invert(Map<Integer, Set<Integer>> m) {
-    Map<Set<Integer>, Set<Integer>> invert_m = new HashMap<>();
-    for (Map.Entry<Integer, Set<Integer>> r : m.entrySet()) {
-      add(invert_m, r.getValue(), r.getKey());
+  private static void checkAttributeIds(int[] ids, int from, int to, int number_of_attributes) {
+    for (int i = from; i < to; ++i) {
+      if (ids[i] < 0 || ids[i] >= number_of_attributes) {
+        throw new IllegalArgumentException("The attribute identity " + ids[i] + " is out of range.");
+      }
     }
-    return invert_m;
   }
 
-  private static class ClarifiedThread extends Thread {
-    private Map<Integer, Set<Integer>> object_to_attributes;
-    private Map<Set<Integer>, Set<Integer>> clarified_relations;
+  private void init(List<O> objects, List<A> attributes, IdSet[] id_rows) {
+    object2O.addAll(objects);
+    attribute2A.addAll(attributes);
+
+    init(new FormalContext(id_rows, attributes.size()));
+  }
+
+  private void init(FormalContext formal_context) {
+    context = formal_context;
 
-    ClarifiedThread(Map<Integer, Set<Integer>> m) {
-      object_to_attributes = m;
-      clarified_relations  = new HashMap<>();
+    objects_with_attributes = nonEmpty(context.rows());
+    attributes_with_objects = nonEmpty(context.columns());
+    b_stale_universes = false;
+  }
+
+  private void refreshUniverses() {
+    if (b_stale_universes) {
+      objects_with_attributes = nonEmpty(context.rows());
+      attributes_with_objects = nonEmpty(context.columns());
+      b_stale_universes = false;
     }
+  }
 
-    @Override
-    public void run() {
-      clarified_relations = invert(object_to_attributes);
+  private static IdSet nonEmpty(IdSet[] sets) {
+    int n = 0;
+    for (IdSet s : sets) {
+      if (!s.isEmpty()) ++n;
     }
 
-    private Map<Set<Integer>, Set<Integer>> getClarified() {
-      return clarified_relations;
+    int[] ids = new int[n];
+    n = 0;
+    for (int i = 0; i < sets.length; ++i) {
+      if (!sets[i].isEmpty()) ids[n++] = i;
     }
+    return new IdSet(ids);
   }
 
-  private static class DominationThread extends Thread {
-    private Map<Integer, Set<Integer>> attribute_to_objects;
-    private Map<Set<Integer>, Set<Integer>> domination_relations;
+  /**
+   * Group the identities within [from, to) by their (non-empty) sets.
+   *
+   * @param m the set of each identity
+   * @param from the first identity
+   * @param to the identity after the last one
+   * @return each distinct set to the identities which own it
+   */
+  private static Map<IdSet, IdSet> invert(IdSet[] m, int from, int to) {
+    Map<IdSet, Integer> groups = new HashMap<>();
+    int[] group_of = new int[to - from];
+    int[] sizes    = new int[to - from];
+
+    for (int i = from; i < to; ++i) {
+      if (m[i].isEmpty()) {
+        group_of[i - from] = -1;
+        continue;
+      }
 
-    DominationThread(Map<Integer, Set<Integer>> m) {
-      attribute_to_objects = m;
-      domination_relations = new HashMap<>();
+      Integer g = groups.get(m[i]);
+      if (g == null) {
+        g = groups.size();
+        groups.put(m[i], g);
+      }
+      group_of[i - from] = g;
+      ++sizes[g];
     }
 
-    @Override
-    public void run() {
-      Map<Set<Integer>, Set<Integer>> objects_to_attributes = invert(attribute_to_objects);
+    int[][] ids = new int[groups.size()][];
+    for (int g = 0; g < ids.length; ++g) {
+      ids[g] = new int[sizes[g]];
+      sizes[g] = 0;
+    }
 
-      Set<Set<Integer>> key_set = objects_to_attributes.keySet();
-      for (Map.Entry<Set<Integer>, Set<Integer>> r : objects_to_attributes.entrySet()) {
-        Set<Integer> tmp = r.getKey();
+    for (int i = from; i < to; ++i) {
+      int g = group_of[i - from];
+      if (g >= 0) {
+        ids[g][sizes[g]++] = i;
+      }
+    }
 
-        domination_relations.putIfAbsent(r.getValue(), new HashSet<Integer>());
-        Set<Integer> current = domination_relations.get(r.getValue());
+    Map<IdSet, IdSet> invert_m = new HashMap<>(groups.size() * 2);
+    for (Map.Entry<IdSet, Integer> e : groups.entrySet()) {
+      invert_m.put(e.getKey(), new IdSet(ids[e.getValue()]));
+    }
+    return invert_m;
+  }
 
-        for (Set<Integer> k : key_set) {
-          if (k.containsAll(tmp)) {
-            current.addAll(objects_to_attributes.get(k));
-          }
-        }
+  /**
+   * The attributes whose extents include the given extent, i.e. the intent of the attribute concept.
+   * Every such attribute owns each object of the extent, so the candidates are pruned to the row of
+   * the object owning the fewest attributes (inverted index), and then to the columns which are not smaller.
+   *
+   * @param context the formal context
+   * @param extent the non-empty extent of an attribute
+   * @return the attributes dominating the extent
+   */
+  private static IdSet dominate(FormalContext context, IdSet extent) {
+    IdSet pivot = context.row(extent.get(0));
+    for (int i = 1; i < extent.size() && pivot.size() > 1; ++i) {
+      IdSet r = context.row(extent.get(i));
+      if (r.size() < pivot.size()) {
+        pivot = r;
       }
     }
 
-    private Map<Set<Integer>, Set<Integer>> getDomination() {
-      return domination_relations;
+    int[] intent = new int[pivot.size()];
+    int n = 0;
+    for (int i = 0; i < pivot.size(); ++i) {
+      IdSet column = context.column(pivot.get(i));
+      if (column.size() >= extent.size() && column.containsAll(extent)) {
+        intent[n++] = pivot.get(i);
+      }
     }
+    return new IdSet(n == intent.length ? intent : Arrays.copyOf(intent, n));
   }
 
-  public void compute() {
-    if (object2Attributes == null || object2Attributes.isEmpty() ||
-        attribute2Objects == null || attribute2Objects.isEmpty()) return;
+  /**
+   * Clarify a slice of the rows (or columns) of the context.
+   */
+  private static class ClarifiedTask implements Callable<Map<IdSet, IdSet>> {
+    private final IdSet[] sets;
+    private final int from, to;
+
+    ClarifiedTask(IdSet[] m, int from, int to) {
+      this.sets = m;
+      this.from = from;
+      this.to   = to;
+    }
 
-    ClarifiedThread rc   = new ClarifiedThread(object2Attributes);
-    DominationThread dom = new DominationThread(attribute2Objects);
+    @Override
+    public Map<IdSet, IdSet> call() {
+      return invert(sets, from, to);
+    }
+  }
 
-    rc.start();
-    dom.start();
+  /**
+   * Compute the domination of a slice of the clarified attribute extents.
+   */
+  private static class DominationTask implements Callable<Void> {
+    private final FormalContext formal_context;
+    private final IdSet[] extents;
+    private final IdSet[] intents;
+    private final int from, to;
+
+    DominationTask(FormalContext c, IdSet[] extents, IdSet[] intents, int from, int to) {
+      this.formal_context = c;
+      this.extents        = extents;
+      this.intents        = intents;
+      this.from           = from;
+      this.to             = to;
+    }
 
-    try {
-      rc.join();
-      dom.join();
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+    @Override
+    public Void call() {
+      for (int i = from; i < to; ++i) {
+        intents[i] = dominate(formal_context, extents[i]);
+      }
+      return null;
     }
+  }
 
-    clarified = rc.getClarified();
-    domination = dom.getDomination();
+  /**
+   * Set the executor which runs the clarification and domination tasks of compute,
+   * so that several matchers are able to share one pool.
+   *
+   * @param executor the executor, null means the common fork/join pool
+   */
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
 
-    simplification = new HashMap<>(clarified);
-    for (Map.Entry<Set<Integer>, Set<Integer>> r : domination.entrySet()) {
-      addAll(simplification, r.getValue(), r.getKey());
-    }
+  private ExecutorService executor() {
+    return executor != null ? executor : ForkJoinPool.commonPool();
   }
 
-  private Concept<Integer, Integer> simplifiedConceptIdFrom(Set<Integer> s) {
-    Set<Integer> objects    = new HashSet<>();
-    Set<Integer> attributes = new HashSet<>();
+  /**
+   * @param n the size of the work
+   * @return the number of slices of the work
+   */
+  private int slices(int n) {
+    int parallelism = executor() instanceof ForkJoinPool ? ((ForkJoinPool) executor()).getParallelism()
+                                                         : Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(parallelism * 4, n / MIN_SLICE_SIZE));
+  }
 
-    if (s == null || s.isEmpty()) return new Concept<Integer, Integer>(objects, attributes);
+  private <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+    List<T> results = new ArrayList<>(tasks.size());
+    try {
+      if (tasks.size() == 1) {
+        results.add(tasks.get(0).call());
+        return results;
+      }
 
-    for (int i : s) {
-      if (i < dividing) {
-        objects.add(i);
-      } else {
-        attributes.add(i);
+      for (Future<T> f : executor().invokeAll(tasks)) {
+        results.add(f.get());
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while computing the AOC-poset.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to compute the AOC-poset.", e.getCause());
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to compute the AOC-poset.", e);
     }
-
-    return new Concept<Integer, Integer>(objects, attributes);
+    return results;
   }
 
-  private <T> Set<T> retransform(Set<Integer> sid, Map<Integer, T> m) {
-    Set<T> origin = new HashSet<>();
-    if (sid == null || sid.isEmpty()) {
-      return origin;
+  private void addClarifiedTasks(IdSet[] m, List<ClarifiedTask> tasks) {
+    int k = slices(m.length);
+    for (int i = 0; i < k; ++i) {
+      tasks.add(new ClarifiedTask(m, (int) ((long) m.length * i / k), (int) ((long) m.length * (i + 1) / k)));
     }
+  }
 
-    for (int i : sid) {
-      if (m.containsKey(i)) {
-        origin.add(m.get(i));
+  /**
+   * Merge the clarified slices, whose identities are disjoint and increasing.
+   */
+  private static Map<IdSet, IdSet> merge(List<Map<IdSet, IdSet>> slices) {
+    Map<IdSet, IdSet> merged = slices.get(0);
+    for (int i = 1; i < slices.size(); ++i) {
+      for (Map.Entry<IdSet, IdSet> e : slices.get(i).entrySet()) {
+        IdSet v = merged.get(e.getKey());
+        merged.put(e.getKey(), v == null ? e.getValue() : v.union(e.getValue()));
       }
     }
-
-    return origin;
+    return merged;
   }
 
-  private Concept<O, A> retransform(Concept<Integer, Integer> concept_id) {
-    if (concept_id == null) {
-      return null;
+  public void compute() {
+    if (context == null) return;
+
+    refreshUniverses();
+    if (objects_with_attributes.isEmpty() || attributes_with_objects.isEmpty()) {
+      // NOTE: empty relations rather than none, so that the updates after compute stay incremental.
+      clarified         = new HashMap<>();
+      domination        = new HashMap<>();
+      attribute_classes = new HashMap<>();
+      simplification    = new HashMap<>();
+      return;
     }
 
-    Set<O> objects = retransform(concept_id.getExtent(), object2O);
-
-    Set<A> attributes = retransform(concept_id.getIntent(), attribute2A);
+    // NOTE: clarify the objects (Rc) and the attributes (for Dom) together.
+    List<ClarifiedTask> clarified_tasks = new ArrayList<>();
+    addClarifiedTasks(context.rows(), clarified_tasks);
+    int number_of_row_tasks = clarified_tasks.size();
+    addClarifiedTasks(context.columns(), clarified_tasks);
 
-    return new Concept<O, A>(objects, attributes);
-  }
+    List<Map<IdSet, IdSet>> slices = invokeAll(clarified_tasks);
+    clarified = merge(slices.subList(0, number_of_row_tasks));
+    Map<IdSet, IdSet> objects_to_attributes = merge(slices.subList(number_of_row_tasks, slices.size()));
+    attribute_classes = objects_to_attributes;
 
-  private Concept<O, A> simplifiedConceptFrom(Set<Integer> s) {
-    return retransform(simplifiedConceptIdFrom(s));
-  }
+    IdSet[] extents = new IdSet[objects_to_attributes.size()];
+    IdSet[] classes = new IdSet[objects_to_attributes.size()];
+    int i = 0;
+    for (Map.Entry<IdSet, IdSet> e : objects_to_attributes.entrySet()) {
+      extents[i] = e.getKey();
+      classes[i] = e.getValue();
+      ++i;
+    }
 
-  // NOTE: s from simplification.
-  private Set<O> simplifiedExtentFrom(Set<Integer> s) {
-    return retransform(s, object2O);
-  }
+    IdSet[] intents = new IdSet[extents.length];
+    List<DominationTask> domination_tasks = new ArrayList<>();
+    int k = slices(extents.length);
+    for (int j = 0; j < k; ++j) {
+      domination_tasks.add(new DominationTask(context, extents, intents,
+                                              (int) ((long) extents.length * j / k),
+                                              (int) ((long) extents.length * (j + 1) / k)));
+    }
+    invokeAll(domination_tasks);
 
-  private Set<Integer> relative(Set<Integer> s, Map<Integer, Set<Integer>> m) {
-    Set<Integer> relative_s = new HashSet<>();
-    if (s == null || m == null) return relative_s;
+    domination = new HashMap<>(classes.length * 2);
+    for (int j = 0; j < classes.length; ++j) {
+      domination.put(classes[j], intents[j]);
+    }
 
-    Iterator<Integer> it = s.iterator();
-    if (it.hasNext()) {
-      int i = it.next();
-      if (m.get(i) != null) {
-        relative_s.addAll(m.get(i));
-      }
+    simplification = new HashMap<>(clarified.size() * 2);
+    for (Map.Entry<IdSet, IdSet> r : clarified.entrySet()) {
+      simplification.put(r.getKey(), new Pair<>(r.getValue(), IdSet.EMPTY));
     }
 
-    while (it.hasNext()) {
-      int i = it.next();
-      if (m.get(i) != null) {
-        relative_s.retainAll(m.get(i));
+    for (Map.Entry<IdSet, IdSet> r : domination.entrySet()) {
+      Pair<IdSet, IdSet> p = simplification.get(r.getValue());
+      if (p == null) {
+        simplification.put(r.getValue(), new Pair<>(IdSet.EMPTY, r.getKey()));
+      } else {
+        simplification.put(r.getValue(), new Pair<>(p.getKey(), p.getValue().union(r.getKey())));
       }
     }
-
-    return relative_s;
   }
 
-  private Set<Integer> relativeObjects(Set<Integer> attributes) {
-    if (attributes == null || object2Attributes == null) return new HashSet<Integer>();
-    if (attributes.isEmpty()) {
-      return object2Attributes.keySet();
+  /**
+   * The objects and attributes of the int identity inits are not hashed, so index them before the first update.
+   */
+  private void indexIdentities() {
+    for (int i = O2Object.size(); O2Object.size() < object2O.size() && i < object2O.size(); ++i) {
+      O2Object.putIfAbsent(object2O.get(i), i);
+    }
+    for (int i = A2Attribute.size(); A2Attribute.size() < attribute2A.size() && i < attribute2A.size(); ++i) {
+      A2Attribute.putIfAbsent(attribute2A.get(i), i);
     }
-    return relative(attributes, attribute2Objects);
   }
 
-  private Set<Integer> relativeAttributes(Set<Integer> objects) {
-    if (objects == null || attribute2Objects == null) return new HashSet<Integer>();
-    if (objects.isEmpty()) {
-      return attribute2Objects.keySet();
+  /**
+   * Add an object with its attributes, or replace the attributes of an existing object. If the poset has been
+   * computed, the clarified, domination and simplification relations are updated incrementally, so the listings
+   * are the same as those of init and compute over the updated context; otherwise the next compute builds them.
+   *
+   * @param object the object
+   * @param attributes the attributes of the object, the new ones are added to the context
+   * @param attributes no side effect
+   */
+  public void addObject(O object, Set<A> attributes) {
+    indexIdentities();
+
+    Integer id = O2Object.get(object);
+    if (id == null) {
+      id = object2O.size();
+      object2O.add(object);
+      O2Object.put(object, id);
     }
-    return relative(objects, object2Attributes);
-  }
 
-  private Concept<Integer, Integer> computeConceptId(Set<Integer> attributes,
-                                                     int limit_objects_size,
-                                                     int limit_attributes_size) {
-    Set<Integer> extent_id = new HashSet<>();
-    Set<Integer> intent_id = new HashSet<>();
+    int[] ids = new int[attributes.size()];
+    int j = 0;
+    for (A a : attributes) {
+      ids[j++] = attributeId(a);
+    }
 
-    if (attributes == null) return new Concept<Integer, Integer>(extent_id, intent_id);
+    update(id, IdSet.of(ids));
+  }
 
-    intent_id.addAll(attributes);
+  /**
+   * Remove an object, as addObject with no attributes. Its identity is kept, so adding it again reuses the identity.
+   *
+   * @param object the object
+   * @return true if the object owned any attribute
+   */
+  public boolean removeObject(O object) {
+    indexIdentities();
 
-    if (attributes.isEmpty() && object2Attributes != null) {
-      Set<Integer> all_objects = object2Attributes.keySet();
-      if (limit_objects_size > 0 && all_objects.size() > limit_objects_size) {
-        return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
-      }
-      return new Concept<Integer, Integer>(all_objects, intent_id);
+    Integer id = O2Object.get(object);
+    if (id == null || context == null || id >= context.getNumberOfObjects() || context.row(id).isEmpty()) {
+      return false;
     }
 
-    if (limit_attributes_size > 0 && attributes.size() > limit_attributes_size) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
+    update(id, IdSet.EMPTY);
+    return true;
+  }
+
+  /**
+   * Replace the row of an object, then update the relations around it.
+   *
+   * Only the attributes of the old or the new row change their extents (by this object), so only their old and new
+   * extents change their classes. The intent of an attribute concept, i.e. the attributes whose extents include its
+   * extent, changes only if its extent changes or includes this object, which are the extents of the same attributes.
+   */
+  private void update(int object, IdSet row) {
+    if (context == null) {
+      context = new FormalContext(new IdSet[0], 0);
     }
+    context.ensureSize(object2O.size(), attribute2A.size());
 
-    extent_id = relativeObjects(attributes);
+    IdSet old_row = context.row(object);
+    if (old_row.equals(row)) return;
 
-    if (limit_objects_size > 0 && extent_id.size() > limit_objects_size) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
+    b_stale_universes = true;
+    if (simplification == null) {
+      context.setRow(object, row);
+      return;
     }
 
-    Set<Integer> relative_intent = relativeAttributes(extent_id);
-
-    if (!intent_id.equals(relative_intent)) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
+    IdSet touched = old_row.union(row);
+    IdSet[] old_extents = new IdSet[touched.size()];
+    for (int i = 0; i < touched.size(); ++i) {
+      old_extents[i] = context.column(touched.get(i));
     }
 
-    return new Concept<Integer, Integer>(extent_id, intent_id);
-  }
+    context.setRow(object, row);
 
-  private Concept<Integer, Integer> computeConceptId(Set<Integer> attributes,
-                                                     int least_objects_size,    int most_objects_size,
-                                                     int least_attributes_size, int most_attributes_size) {
-    Set<Integer> extent_id = new HashSet<>();
-    Set<Integer> intent_id = new HashSet<>();
+    Set<IdSet> extents = new HashSet<>();
+    Map<IdSet, IdSet> old_classes = new HashMap<>();
+    for (int i = 0; i < touched.size(); ++i) {
+      for (IdSet extent : new IdSet[] { old_extents[i], context.column(touched.get(i)) }) {
+        if (!extent.isEmpty() && extents.add(extent)) {
+          IdSet c = attribute_classes.get(extent);
+          if (c != null) {
+            old_classes.put(extent, c);
+          }
+        }
+      }
+    }
 
-    if (attributes == null) return new Concept<Integer, Integer>(extent_id, intent_id);
+    for (int i = 0; i < touched.size(); ++i) {
+      IdSet extent = context.column(touched.get(i));
+      if (old_extents[i].equals(extent)) continue;
 
-    intent_id.addAll(attributes);
+      IdSet a = new IdSet(new int[] { touched.get(i) });
+      move(attribute_classes, old_extents[i], a, false);
+      move(attribute_classes, extent, a, true);
+    }
 
-    if (attributes.isEmpty() && object2Attributes != null) {
-      Set<Integer> all_objects = object2Attributes.keySet();
-      if (most_objects_size >= 0 && all_objects.size() > most_objects_size || all_objects.size() < least_objects_size) {
-        return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
+    // NOTE: remove all of the old classes before putting the new ones, since a class may move to another extent.
+    for (IdSet c : old_classes.values()) {
+      IdSet intent = domination.remove(c);
+      if (intent != null) {
+        Pair<IdSet, IdSet> p = simplified(intent);
+        simplify(intent, p.getKey(), p.getValue().minus(c));
       }
-      return new Concept<Integer, Integer>(all_objects, intent_id);
     }
 
-    if (most_attributes_size >= 0 && attributes.size() > most_attributes_size || attributes.size() < least_attributes_size) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
-    }
+    for (IdSet extent : extents) {
+      IdSet c = attribute_classes.get(extent);
+      if (c == null) continue;
 
-    extent_id = relativeObjects(attributes);
+      IdSet intent = dominate(context, extent);
+      domination.put(c, intent);
 
-    if (most_objects_size >= 0 && extent_id.size() > most_objects_size || extent_id.size() < least_objects_size) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
+      Pair<IdSet, IdSet> p = simplified(intent);
+      simplify(intent, p.getKey(), p.getValue().union(c));
     }
 
-    Set<Integer> relative_intent = relativeAttributes(extent_id);
+    IdSet o = new IdSet(new int[] { object });
+    move(clarified, old_row, o, false);
+    move(clarified, row, o, true);
 
-    if (!intent_id.equals(relative_intent)) {
-      return new Concept<Integer, Integer>(new HashSet<Integer>(), new HashSet<Integer>());
-    }
+    for (IdSet intent : new IdSet[] { old_row, row }) {
+      if (intent.isEmpty()) continue;
 
-    return new Concept<Integer, Integer>(extent_id, intent_id);
+      IdSet objects = clarified.get(intent);
+      simplify(intent, objects == null ? IdSet.EMPTY : objects, simplified(intent).getValue());
+    }
   }
 
-  private static void attributeIdClosure(Set<Set<Integer>> set_of_attributes) {
-    // XXX: wait to improve
-    Map<Integer, Set<Set<Integer>>> m = new HashMap<>();
-    for (Set<Integer> attributes : set_of_attributes) {
-      for (int i : attributes) {
-        add(m, i, attributes);
+  /**
+   * Add (or remove) the identities to (or from) the value of a non-empty key, and drop the key of no identity.
+   */
+  private static void move(Map<IdSet, IdSet> m, IdSet key, IdSet ids, boolean b_add) {
+    if (key.isEmpty()) return;
+
+    IdSet v = m.get(key);
+    if (b_add) {
+      m.put(key, v == null ? ids : v.union(ids));
+    } else if (v != null) {
+      v = v.minus(ids);
+      if (v.isEmpty()) {
+        m.remove(key);
+      } else {
+        m.put(key, v);
       }
     }
+  }
 
-    boolean bIncrease;
-    do {
-      bIncrease = false;
-      Set<Set<Integer>> copy = new HashSet<>(set_of_attributes);
+  private Pair<IdSet, IdSet> simplified(IdSet intent) {
+    Pair<IdSet, IdSet> p = simplification.get(intent);
+    return p != null ? p : new Pair<>(IdSet.EMPTY, IdSet.EMPTY);
+  }
 
-      for (Set<Integer> s1 : copy) {
-        Set<Set<Integer>> related_set_of_attributes = new HashSet<>();
-        for (int i : s1) {
-          related_set_of_attributes.addAll(m.get(i));
-        }
+  private void simplify(IdSet intent, IdSet objects, IdSet attributes) {
+    if (objects.isEmpty() && attributes.isEmpty()) {
+      simplification.remove(intent);
+    } else {
+      simplification.put(intent, new Pair<>(objects, attributes));
+    }
+  }
 
-        for (Set<Integer> s2 : related_set_of_attributes) {
-          Set<Integer> s3 = new HashSet<>(s2);
-          s3.retainAll(s1);
-          if (!set_of_attributes.contains(s3)) {
-            set_of_attributes.add(s3);
-            for (int k : s3) {
-              add(m, k, s3);
-            }
-            bIncrease = true;
-          }
-        }
-      }
-    } while (bIncrease);
+  private <T> Set<T> retransform(IdSet sid, List<T> m) {
+    Set<T> origin = new HashSet<>();
+    if (sid == null || sid.isEmpty()) {
+      return origin;
+    }
+
+    for (int i = 0; i < sid.size(); ++i) {
+      origin.add(m.get(sid.get(i)));
+    }
+
+    return origin;
+  }
+
+  private Concept<O, A> retransform(IdSet extent_id, IdSet intent_id) {
+    return new Concept<O, A>(retransform(extent_id, object2O), retransform(intent_id, attribute2A));
+  }
+
+  private Concept<O, A> simplifiedConceptFrom(Pair<IdSet, IdSet> s) {
+    return retransform(s.getKey(), s.getValue());
   }
 
   /**
@@ -425,12 +711,10 @@ public class Hermes <O, A>
   public Set<Pair<Set<O>, Set<A>>> listSimplifiedConceptsLimit(int limit_objects_size, int limit_attributes_size) {
     Set<Pair<Set<O>, Set<A>>> simplified_concepts_limit = new HashSet<>();
     if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> e : simplification.entrySet()) {
-        Pair<Set<O>, Set<A>> simplified_concept = simplifiedConceptFrom(e.getValue());
-        if ((limit_objects_size <= 0 || simplified_concept.getKey().size() <= limit_objects_size) &&
-            (limit_attributes_size <= 0 || simplified_concept.getValue().size() <= limit_attributes_size) &&
-            simplified_concept != null) {
-          simplified_concepts_limit.add(simplified_concept);
+      for (Pair<IdSet, IdSet> e : simplification.values()) {
+        if ((limit_objects_size <= 0 || e.getKey().size() <= limit_objects_size) &&
+            (limit_attributes_size <= 0 || e.getValue().size() <= limit_attributes_size)) {
+          simplified_concepts_limit.add(simplifiedConceptFrom(e));
         }
       }
     }
@@ -450,13 +734,11 @@ public class Hermes <O, A>
                                                                    int least_attributes_size, int most_attributes_size) {
     Set<Pair<Set<O>, Set<A>>> simplified_concepts_least_most = new HashSet<>();
     if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> e : simplification.entrySet()) {
-        Pair<Set<O>, Set<A>> simplified_concept = simplifiedConceptFrom(e.getValue());
-        if (simplified_concept == null) continue;
-        int k_sz = simplified_concept.getKey().size(), v_sz = simplified_concept.getValue().size();
+      for (Pair<IdSet, IdSet> e : simplification.values()) {
+        int k_sz = e.getKey().size(), v_sz = e.getValue().size();
         if ( k_sz >= least_objects_size    && (k_sz <= most_objects_size    || most_objects_size < 0) &&
              v_sz >= least_attributes_size && (v_sz <= most_attributes_size || most_attributes_size < 0)) {
-          simplified_concepts_least_most.add(simplified_concept);
+          simplified_concepts_least_most.add(simplifiedConceptFrom(e));
         }
       }
     }
@@ -470,12 +752,10 @@ public class Hermes <O, A>
   public Set<Set<O>> listSimplifiedExtentsLimit(int limit_objects_size, int limit_attributes_size) {
     Set<Set<O>> simplified_extents_limit = new HashSet<>();
     if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> e : simplification.entrySet()) {
-        Pair<Set<O>, Set<A>> simplified_concept = simplifiedConceptFrom(e.getValue());
-        if ((limit_objects_size <= 0 || simplified_concept.getKey().size() <= limit_objects_size) &&
-            (limit_attributes_size <= 0 || simplified_concept.getValue().size() <= limit_attributes_size) &&
-            simplified_concept != null) {
-          simplified_extents_limit.add(simplified_concept.getKey());
+      for (Pair<IdSet, IdSet> e : simplification.values()) {
+        if ((limit_objects_size <= 0 || e.getKey().size() <= limit_objects_size) &&
+            (limit_attributes_size <= 0 || e.getValue().size() <= limit_attributes_size)) {
+          simplified_extents_limit.add(retransform(e.getKey(), object2O));
         }
       }
     }
@@ -495,57 +775,107 @@ public class Hermes <O, A>
                                                     int least_attributes_size, int most_attributes_size) {
     Set<Set<O>> simplified_extents_least_most = new HashSet<>();
     if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> e : simplification.entrySet()) {
-        Pair<Set<O>, Set<A>> simplified_concept = simplifiedConceptFrom(e.getValue());
-        if (simplified_concept == null) continue;
-        int k_sz = simplified_concept.getKey().size(), v_sz = simplified_concept.getValue().size();
+      for (Pair<IdSet, IdSet> e : simplification.values()) {
+        int k_sz = e.getKey().size(), v_sz = e.getValue().size();
         if ( k_sz >= least_objects_size    && (k_sz <= most_objects_size    || most_objects_size < 0) &&
              v_sz >= least_attributes_size && (v_sz <= most_attributes_size || most_attributes_size < 0)) {
-          simplified_extents_least_most.add(simplified_concept.getKey());
+          simplified_extents_least_most.add(retransform(e.getKey(), object2O));
         }
       }
     }
     return simplified_extents_least_most;
   }
 
-  private void addTopBottomAttributes(Set<Set<Integer>> set_of_attributes, int limit_attributes_size) {
-    if (attribute2Objects != null) {
-      Set<Integer> total_attributes = attribute2Objects.keySet();
+  /**
+   * Enumerate the concepts of the lattice within [least, most] by Close-by-One, the bounds prune the search.
+   * The side of the context to extend is the one which is bounded above, otherwise the smaller one.
+   *
+   * @return the lazy iterator over the pairs of extent and intent
+   */
+  private Iterator<Pair<IdSet, IdSet>> closedConceptsLeastMost(int least_objects_size,    int most_objects_size,
+                                                               int least_attributes_size, int most_attributes_size) {
+    if (context == null) return Collections.<Pair<IdSet, IdSet>>emptyIterator();
+    refreshUniverses();
+
+    boolean extend_objects = most_objects_size >= 0 ||
+        (most_attributes_size < 0 && objects_with_attributes.size() <= attributes_with_objects.size());
+
+    if (extend_objects) {
+      return new CloseByOne(context.rows(), context.columns(), objects_with_attributes, attributes_with_objects)
+                 .setItemsLeastMost(least_objects_size, most_objects_size)
+                 .setDualsLeastMost(least_attributes_size, most_attributes_size)
+                 .iterator();
+    }
 
-      Set<Integer> top_attributes =  new HashSet<>(total_attributes);
-      for (Set<Integer> attributes : set_of_attributes) {
-        top_attributes.retainAll(attributes);
-      }
+    final Iterator<Pair<IdSet, IdSet>> it =
+      new CloseByOne(context.columns(), context.rows(), attributes_with_objects, objects_with_attributes)
+          .setItemsLeastMost(least_attributes_size, most_attributes_size)
+          .setDualsLeastMost(least_objects_size, most_objects_size)
+          .iterator();
 
-      if (limit_attributes_size <= 0 || total_attributes.size() <= limit_attributes_size) {
-        set_of_attributes.add(total_attributes);
+    return new Iterator<Pair<IdSet, IdSet>>() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
       }
 
-      if (limit_attributes_size <= 0 || top_attributes.size() <= limit_attributes_size) {
-        set_of_attributes.add(top_attributes);
+      @Override
+      public Pair<IdSet, IdSet> next() {
+        Pair<IdSet, IdSet> c = it.next();
+        return new Pair<>(c.getValue(), c.getKey());
       }
-    }
+    };
   }
 
-  private void addTopBottomAttributes(Set<Set<Integer>> set_of_attributes, int least_attributes_size, int most_attributes_size) {
-    if (attribute2Objects != null) {
-      Set<Integer> total_attributes = attribute2Objects.keySet();
+  private Iterator<Pair<IdSet, IdSet>> closedConceptsLimit(int limit_objects_size, int limit_attributes_size) {
+    return closedConceptsLeastMost(0, limit_objects_size    > 0 ? limit_objects_size    : -1,
+                                   0, limit_attributes_size > 0 ? limit_attributes_size : -1);
+  }
 
-      Set<Integer> top_attributes =  new HashSet<>(total_attributes);
-      for (Set<Integer> attributes : set_of_attributes) {
-        top_attributes.retainAll(attributes);
+  /**
+   * Iterate the concepts within [least, most], which are found lazily while iterating,
+   * so the memory stays proportional to the output rather than to the size of the lattice.
+   * The iterator is invalid after this Hermes is closed.
+   *
+   * @param least_objects_size the least size of objects
+   * @param most_objects_size the most size of objects, when the most size less than 0 indicates no most limit
+   * @param least_attributes_size the least size of attributes
+   * @param most_attributes_size the most size of attributes, when the most size less than 0 indicates no most limit
+   * @return the iterator over the concepts satisfied above conditions, each concept occurs once
+   */
+  public Iterator<Concept<O, A>> iterateConceptsLeastMost(int least_objects_size,    int most_objects_size,
+                                                          int least_attributes_size, int most_attributes_size) {
+    final Iterator<Pair<IdSet, IdSet>> it = closedConceptsLeastMost(least_objects_size,    most_objects_size,
+                                                                    least_attributes_size, most_attributes_size);
+    return new Iterator<Concept<O, A>>() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
       }
 
-      int sz1 = total_attributes.size(), sz2 = top_attributes.size();
-
-      if (sz1 >= least_attributes_size && (sz1 <= most_attributes_size || most_attributes_size < 0)) {
-        set_of_attributes.add(total_attributes);
+      @Override
+      public Concept<O, A> next() {
+        Pair<IdSet, IdSet> c = it.next();
+        return retransform(c.getKey(), c.getValue());
       }
+    };
+  }
 
-      if (sz2 >= least_attributes_size && (sz2 <= most_attributes_size || most_attributes_size < 0)) {
-        set_of_attributes.add(top_attributes);
-      }
-    }
+  /**
+   * The sequential stream of iterateConceptsLeastMost.
+   *
+   * @param least_objects_size the least size of objects
+   * @param most_objects_size the most size of objects, when the most size less than 0 indicates no most limit
+   * @param least_attributes_size the least size of attributes
+   * @param most_attributes_size the most size of attributes, when the most size less than 0 indicates no most limit
+   * @return the stream of the concepts satisfied above conditions
+   */
+  public Stream<Concept<O, A>> streamConceptsLeastMost(int least_objects_size,    int most_objects_size,
+                                                       int least_attributes_size, int most_attributes_size) {
+    Iterator<Concept<O, A>> it = iterateConceptsLeastMost(least_objects_size,    most_objects_size,
+                                                          least_attributes_size, most_attributes_size);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.DISTINCT | Spliterator.NONNULL),
+                                false);
   }
 
   /**
@@ -558,59 +888,30 @@ public class Hermes <O, A>
   public Set<Concept<O, A>> listConceptsLimit(int limit_objects_size, int limit_attributes_size) {
     Set<Concept<O, A>> concepts_limit = new HashSet<>();
 
-    Set<Set<Integer>> set_of_attributes = new HashSet<>();
-    if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> r : simplification.entrySet()) {
-        Set<Integer> attributes = r.getKey();
-
-        if (limit_attributes_size <= 0 || attributes.size() <= limit_attributes_size) {
-          set_of_attributes.add(attributes);
-        }
-      }
-    }
-
-    attributeIdClosure(set_of_attributes);
-
-    addTopBottomAttributes(set_of_attributes, limit_attributes_size);
-
-    for (Set<Integer> attributes : set_of_attributes) {
-      Concept<Integer, Integer> concept_id = computeConceptId(attributes, limit_objects_size, limit_attributes_size);
-      Concept<O, A> concept = retransform(concept_id);
-      if (concept != null && (!concept_id.getExtent().isEmpty() || !concept_id.getIntent().isEmpty())) {
-        concepts_limit.add(concept);
-      }
+    for (Iterator<Pair<IdSet, IdSet>> it = closedConceptsLimit(limit_objects_size, limit_attributes_size); it.hasNext(); ) {
+      Pair<IdSet, IdSet> c = it.next();
+      concepts_limit.add(retransform(c.getKey(), c.getValue()));
     }
 
     return concepts_limit;
   }
 
+  /**
+   * Extract the concepts within [least, most]
+   *
+   * @param least_objects_size the least size of objects
+   * @param most_objects_size the most size of objects, when the most size less than 0 indicates no most limit
+   * @param least_attributes_size the least size of attributes
+   * @param most_attributes_size the most size of attributes, when the most size less than 0 indicates no most limit
+   * @return the concepts satisfied above conditions
+   */
   public Set<Concept<O, A>> listConceptsLeastMost(int least_objects_size,    int most_objects_size,
                                                   int least_attributes_size, int most_attributes_size) {
     Set<Concept<O, A>> concepts_least_most = new HashSet<>();
 
-    Set<Set<Integer>> set_of_attributes = new HashSet<>();
-    if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> r : simplification.entrySet()) {
-        Set<Integer> attributes = r.getKey();
-
-        if ( attributes.size() >= least_objects_size &&
-            (attributes.size() <= most_attributes_size || most_attributes_size < 0) ) {
-          set_of_attributes.add(attributes);
-        }
-      }
-    }
-
-    attributeIdClosure(set_of_attributes);
-
-    addTopBottomAttributes(set_of_attributes, least_attributes_size, most_attributes_size);
-
-    for (Set<Integer> attributes : set_of_attributes) {
-      Concept<Integer, Integer> concept_id = computeConceptId(attributes, least_objects_size, most_objects_size,
-                                                                          least_attributes_size, most_attributes_size);
-      Concept<O, A> concept = retransform(concept_id);
-      if (concept != null && (!concept_id.getExtent().isEmpty() || !concept_id.getIntent().isEmpty())) {
-        concepts_least_most.add(concept);
-      }
+    for (Iterator<Concept<O, A>> it = iterateConceptsLeastMost(least_objects_size,    most_objects_size,
+                                                               least_attributes_size, most_attributes_size); it.hasNext(); ) {
+      concepts_least_most.add(it.next());
     }
 
     return concepts_least_most;
@@ -619,64 +920,110 @@ public class Hermes <O, A>
   public Set<Set<O>> listExtentsLimit(int limit_objects_size, int limit_attributes_size) {
     Set<Set<O>> extents_limit = new HashSet<>();
 
-    Set<Set<Integer>> set_of_attributes = new HashSet<>();
-    if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> r : simplification.entrySet()) {
-        Set<Integer> attributes = r.getKey();
-
-        if (limit_attributes_size <= 0 || attributes.size() <= limit_attributes_size) {
-          set_of_attributes.add(attributes);
-        }
-      }
-    }
-
-    attributeIdClosure(set_of_attributes);
-
-    addTopBottomAttributes(set_of_attributes, limit_attributes_size);
-
-    for (Set<Integer> attributes : set_of_attributes) {
-      Concept<Integer, Integer> concept_id = computeConceptId(attributes,
-                                                              limit_objects_size,
-                                                              limit_attributes_size);
-      Set<O> extent = retransform(concept_id.getExtent(), object2O);
-      if (extent != null && (!concept_id.getExtent().isEmpty() || !concept_id.getIntent().isEmpty())) {
-        extents_limit.add(extent);
-      }
+    for (Iterator<Pair<IdSet, IdSet>> it = closedConceptsLimit(limit_objects_size, limit_attributes_size); it.hasNext(); ) {
+      extents_limit.add(retransform(it.next().getKey(), object2O));
     }
 
     return extents_limit;
   }
 
+  /**
+   * Extract the extents of concepts within [least, most]
+   *
+   * @param least_objects_size the least size of objects
+   * @param most_objects_size the most size of objects, when the most size less than 0 indicates no most limit
+   * @param least_attributes_size the least size of attributes
+   * @param most_attributes_size the most size of attributes, when the most size less than 0 indicates no most limit
+   * @return the extents satisfied above conditions
+   */
   public Set<Set<O>> listExtentsLeastMost(int least_objects_size,    int most_objects_size,
                                           int least_attributes_size, int most_attributes_size) {
     Set<Set<O>> extents_least_most = new HashSet<>();
 
-    Set<Set<Integer>> set_of_attributes = new HashSet<>();
-    if (simplification != null) {
-      for (Map.Entry<Set<Integer>, Set<Integer>> r : simplification.entrySet()) {
-        Set<Integer> attributes = r.getKey();
+    for (Iterator<Pair<IdSet, IdSet>> it = closedConceptsLeastMost(least_objects_size,    most_objects_size,
+                                                                   least_attributes_size, most_attributes_size); it.hasNext(); ) {
+      extents_least_most.add(retransform(it.next().getKey(), object2O));
+    }
+
+    return extents_least_most;
+  }
+
+  /**
+   * Extract the extents of exactly two objects within [least, most] size of attributes, which equals
+   * listExtentsLeastMost(2, 2, least, most) without building the lattice. The pairs sharing attributes are
+   * counted through the inverted index, and the shared attributes of a pair are closed iff no third object owns them.
+   *
+   * @param least_attributes_size the least size of attributes
+   * @param most_attributes_size the most size of attributes, when the most size less than 0 indicates no most limit
+   * @return the extents of two objects satisfied above conditions
+   */
+  public Set<Set<O>> listPairExtents(int least_attributes_size, int most_attributes_size) {
+    Set<Set<O>> pair_extents = new HashSet<>();
+    if (context == null) return pair_extents;
+    refreshUniverses();
+
+    int[] shared = new int[context.getNumberOfObjects()];
+    int[] touched = new int[context.getNumberOfObjects()];
+
+    for (int i = 0; i < objects_with_attributes.size(); ++i) {
+      int p = objects_with_attributes.get(i);
+      IdSet row_p = context.row(p);
+
+      int n = 0;
+      for (int j = 0; j < row_p.size(); ++j) {
+        IdSet column = context.column(row_p.get(j));
+        for (int k = column.rank(p + 1); k < column.size(); ++k) {
+          int q = column.get(k);
+          if (shared[q]++ == 0) {
+            touched[n++] = q;
+          }
+        }
+      }
+
+      for (int j = 0; j < n; ++j) {
+        int q = touched[j];
+        int sz = shared[q];
+        shared[q] = 0;
 
-        if ( attributes.size() >= least_attributes_size &&
-            (attributes.size() <= most_attributes_size  || most_attributes_size < 0) ) {
-          set_of_attributes.add(attributes);
+        if (sz < least_attributes_size || (most_attributes_size >= 0 && sz > most_attributes_size)) continue;
+
+        if (isPairClosed(p, q, row_p.intersect(context.row(q)))) {
+          Set<O> extent = new HashSet<>();
+          extent.add(object2O.get(p));
+          extent.add(object2O.get(q));
+          pair_extents.add(extent);
         }
       }
     }
 
-    attributeIdClosure(set_of_attributes);
+    // NOTE: two objects without shared attributes form the top concept only.
+    if (objects_with_attributes.size() == 2 && least_attributes_size <= 0 &&
+        context.row(objects_with_attributes.get(0)).intersect(context.row(objects_with_attributes.get(1))).isEmpty()) {
+      pair_extents.add(retransform(objects_with_attributes, object2O));
+    }
 
-    addTopBottomAttributes(set_of_attributes, least_attributes_size, most_attributes_size);
+    return pair_extents;
+  }
 
-    for (Set<Integer> attributes : set_of_attributes) {
-      Concept<Integer, Integer> concept_id = computeConceptId(attributes, least_objects_size, most_objects_size,
-                                                                          least_attributes_size, most_attributes_size);
-      Set<O> extent = retransform(concept_id.getExtent(), object2O);
-      if (extent != null && (!concept_id.getExtent().isEmpty() || !concept_id.getIntent().isEmpty())) {
-        extents_least_most.add(extent);
+  /**
+   * @return true if no object other than p and q owns all of the non-empty shared attributes
+   */
+  private boolean isPairClosed(int p, int q, IdSet shared_attributes) {
+    IdSet rarest = context.column(shared_attributes.get(0));
+    for (int i = 1; i < shared_attributes.size() && rarest.size() > 2; ++i) {
+      IdSet column = context.column(shared_attributes.get(i));
+      if (column.size() < rarest.size()) {
+        rarest = column;
       }
     }
 
-    return extents_least_most;
+    for (int i = 0; i < rarest.size(); ++i) {
+      int r = rarest.get(i);
+      if (r != p && r != q && context.row(r).containsAll(shared_attributes)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public Set<Concept<O, A>> listAllConcepts() {
@@ -684,13 +1031,11 @@ public class Hermes <O, A>
   }
 
   public void close() {
-    if (object2Attributes != null) {
-      object2Attributes.clear();
-    }
+    context = null;
 
-    if (attribute2Objects != null) {
-      attribute2Objects.clear();
-    }
+    objects_with_attributes = IdSet.EMPTY;
+    attributes_with_objects = IdSet.EMPTY;
+    b_stale_universes = false;
 
     if (object2O != null) {
       object2O.clear();
@@ -716,6 +1061,10 @@ public class Hermes <O, A>
       domination.clear();
     }
 
+    if (attribute_classes != null) {
+      attribute_classes.clear();
+    }
+
     if (simplification != null) {
       simplification.clear();
     }
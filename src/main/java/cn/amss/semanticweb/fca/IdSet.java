@@ -0,0 +1,212 @@
+/*
+ * IdSet.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.fca;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of dense int identities, which is stored as a sorted array and caches its hash code.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+final class IdSet
+{
+  static final IdSet EMPTY = new IdSet(new int[0]);
+
+  private final int[] ids;
+  private final int hash;
+
+  /**
+   * Wrap the sorted identities without copying.
+   *
+   * @param sorted_ids strictly increasing identities
+   * @param sorted_ids owned by this set afterwards
+   */
+  IdSet(int[] sorted_ids) {
+    ids  = sorted_ids;
+    hash = Arrays.hashCode(sorted_ids);
+  }
+
+  /**
+   * Create a set from arbitrary identities.
+   *
+   * @param unsorted_ids the identities, duplicates are allowed
+   * @param unsorted_ids no side effect
+   * @return the set of the identities
+   */
+  static IdSet of(int[] unsorted_ids) {
+    return ofOwned(unsorted_ids.clone());
+  }
+
+  /**
+   * Create a set from arbitrary identities, sorting them in place.
+   *
+   * @param a the identities, duplicates are allowed
+   * @param a owned by this set afterwards
+   * @return the set of the identities
+   */
+  static IdSet ofOwned(int[] a) {
+    if (a.length == 0) return EMPTY;
+
+    Arrays.sort(a);
+
+    int n = 1;
+    for (int i = 1; i < a.length; ++i) {
+      if (a[i] != a[n - 1]) {
+        a[n++] = a[i];
+      }
+    }
+
+    return new IdSet(n == a.length ? a : Arrays.copyOf(a, n));
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  boolean isEmpty() {
+    return ids.length == 0;
+  }
+
+  int get(int i) {
+    return ids[i];
+  }
+
+  boolean contains(int id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /**
+   * @param id the identity
+   * @return the number of identities in this set which are less than id
+   */
+  int rank(int id) {
+    int i = Arrays.binarySearch(ids, id);
+    return i >= 0 ? i : -i - 1;
+  }
+
+  /**
+   * @param that the other set
+   * @return true if every identity of that set is also in this set
+   */
+  boolean containsAll(IdSet that) {
+    if (that.ids.length > ids.length) return false;
+
+    // NOTE: a small set against a large one, e.g. an extent against the column of a frequent token.
+    if (that.ids.length * 16 < ids.length) {
+      int from = 0;
+      for (int j = 0; j < that.ids.length; ++j) {
+        int i = Arrays.binarySearch(ids, from, ids.length, that.ids[j]);
+        if (i < 0) return false;
+        from = i + 1;
+      }
+      return true;
+    }
+
+    int i = 0, j = 0;
+    while (j < that.ids.length) {
+      if (ids.length - i < that.ids.length - j) return false;
+
+      if (ids[i] < that.ids[j]) {
+        ++i;
+      } else if (ids[i] == that.ids[j]) {
+        ++i;
+        ++j;
+      } else {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param that the other set
+   * @return true if the sets share an identity
+   */
+  boolean intersects(IdSet that) {
+    for (int i = 0, j = 0; i < ids.length && j < that.ids.length; ) {
+      if (ids[i] < that.ids[j]) {
+        ++i;
+      } else if (ids[i] > that.ids[j]) {
+        ++j;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  IdSet minus(IdSet that) {
+    int[] r = new int[ids.length];
+    int n = 0;
+    for (int i = 0, j = 0; i < ids.length; ) {
+      if (j == that.ids.length || ids[i] < that.ids[j]) {
+        r[n++] = ids[i++];
+      } else if (ids[i] > that.ids[j]) {
+        ++j;
+      } else {
+        ++i;
+        ++j;
+      }
+    }
+    return n == 0 ? EMPTY : new IdSet(n == r.length ? r : Arrays.copyOf(r, n));
+  }
+
+  IdSet intersect(IdSet that) {
+    int[] r = new int[Math.min(ids.length, that.ids.length)];
+    int n = 0;
+    for (int i = 0, j = 0; i < ids.length && j < that.ids.length; ) {
+      if (ids[i] < that.ids[j]) {
+        ++i;
+      } else if (ids[i] > that.ids[j]) {
+        ++j;
+      } else {
+        r[n++] = ids[i];
+        ++i;
+        ++j;
+      }
+    }
+    return n == 0 ? EMPTY : new IdSet(n == r.length ? r : Arrays.copyOf(r, n));
+  }
+
+  IdSet union(IdSet that) {
+    int[] r = new int[ids.length + that.ids.length];
+    int n = 0, i = 0, j = 0;
+    while (i < ids.length && j < that.ids.length) {
+      if (ids[i] < that.ids[j]) {
+        r[n++] = ids[i++];
+      } else if (ids[i] > that.ids[j]) {
+        r[n++] = that.ids[j++];
+      } else {
+        r[n++] = ids[i++];
+        ++j;
+      }
+    }
+    while (i < ids.length) r[n++] = ids[i++];
+    while (j < that.ids.length) r[n++] = that.ids[j++];
+    return n == r.length ? new IdSet(r) : new IdSet(Arrays.copyOf(r, n));
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    IdSet that = (IdSet) o;
+    return hash == that.hash && Arrays.equals(ids, that.ids);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(ids);
+  }
+}
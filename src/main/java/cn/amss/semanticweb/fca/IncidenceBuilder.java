@@ -0,0 +1,114 @@
+/*
+ * IncidenceBuilder.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.fca;
+
+import java.util.Arrays;
+
+/**
+ * Collect the incidences (object identity, attribute identity) of a formal context in a streaming fashion.
+ * The pairs are kept in two growing int arrays, so no boxed pair is allocated per incidence.
+ * Duplicated pairs are allowed. Not thread-safe.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class IncidenceBuilder
+{
+  private int[] m_objects;
+  private int[] m_attributes;
+  private int m_size = 0;
+
+  private int m_number_of_objects    = 0;
+  private int m_number_of_attributes = 0;
+
+  public IncidenceBuilder() {
+    this(16);
+  }
+
+  /**
+   * @param expected_size the expected number of incidences
+   */
+  public IncidenceBuilder(int expected_size) {
+    m_objects    = new int[Math.max(expected_size, 1)];
+    m_attributes = new int[Math.max(expected_size, 1)];
+  }
+
+  /**
+   * @param object the non-negative object identity
+   * @param attribute the non-negative attribute identity
+   * @return this builder
+   */
+  public IncidenceBuilder add(int object, int attribute) {
+    if (object < 0 || attribute < 0) {
+      throw new IllegalArgumentException("The identities must be non-negative: (" + object + ", " + attribute + ").");
+    }
+
+    if (m_size == m_objects.length) {
+      m_objects    = Arrays.copyOf(m_objects,    m_size * 2);
+      m_attributes = Arrays.copyOf(m_attributes, m_size * 2);
+    }
+
+    m_objects[m_size]    = object;
+    m_attributes[m_size] = attribute;
+    ++m_size;
+
+    m_number_of_objects    = Math.max(m_number_of_objects,    object + 1);
+    m_number_of_attributes = Math.max(m_number_of_attributes, attribute + 1);
+    return this;
+  }
+
+  /**
+   * @return the number of added incidences, including the duplicated ones
+   */
+  public int size() {
+    return m_size;
+  }
+
+  /**
+   * @return the largest object identity plus one
+   */
+  public int getNumberOfObjects() {
+    return m_number_of_objects;
+  }
+
+  /**
+   * @return the largest attribute identity plus one
+   */
+  public int getNumberOfAttributes() {
+    return m_number_of_attributes;
+  }
+
+  /**
+   * Group the incidences by object with a counting sort.
+   *
+   * @param number_of_objects the number of objects, not less than getNumberOfObjects()
+   * @return the attributes of each object
+   */
+  IdSet[] toRows(int number_of_objects) {
+    int[] sizes = new int[number_of_objects];
+    for (int i = 0; i < m_size; ++i) {
+      ++sizes[m_objects[i]];
+    }
+
+    int[][] ids = new int[number_of_objects][];
+    for (int o = 0; o < number_of_objects; ++o) {
+      ids[o] = new int[sizes[o]];
+      sizes[o] = 0;
+    }
+
+    for (int i = 0; i < m_size; ++i) {
+      int o = m_objects[i];
+      ids[o][sizes[o]++] = m_attributes[i];
+    }
+
+    IdSet[] rows = new IdSet[number_of_objects];
+    for (int o = 0; o < number_of_objects; ++o) {
+      rows[o] = IdSet.ofOwned(ids[o]);
+    }
+    return rows;
+  }
+}
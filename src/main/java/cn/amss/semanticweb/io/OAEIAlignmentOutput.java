@@ -10,8 +10,6 @@ package cn.amss.semanticweb.io;
 import cn.amss.semanticweb.util.Element;
 import cn.amss.semanticweb.alignment.Mapping;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 public class OAEIAlignmentOutput extends Element
 {
@@ -65,7 +63,14 @@ public class OAEIAlignmentOutput extends Element
     return content.toString();
   }
 
+  /**
+   * Write the alignment to the output path cell by cell, gzip compressed if the path ends with ".gz"
+   *
+   * @throws Exception if failed to write
+   */
   public final void write() throws Exception {
-    Files.write(Paths.get(m_output_path), getContent().getBytes());
+    try (OAEIAlignmentWriter writer = new OAEIAlignmentWriter(m_output_path, m_output_path.endsWith(".gz"))) {
+      writer.write(m_alignment);
+    }
   }
 }
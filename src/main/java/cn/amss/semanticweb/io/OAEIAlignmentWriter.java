@@ -0,0 +1,204 @@
+/*
+ * OAEIAlignmentWriter.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.io;
+
+import cn.amss.semanticweb.alignment.MappingCell;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.FileOutputStream;
+import java.io.Writer;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Write an alignment in the OAEI (RDF/XML) format cell by cell to a buffered stream, so that the document
+ * is never held in memory. The output is the same as OAEIAlignmentOutput.getContent() in UTF-8.
+ *
+ * Usage: writeHead(), writeCell(c) for each cell, writeTail() and close(), or write(cells) for all of them.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class OAEIAlignmentWriter implements Closeable
+{
+  private static final String NEWLINE = System.lineSeparator();
+
+  private static final String MAP_START    = "  <map>";
+  private static final String MAP_END      = "  </map>";
+  private static final String CELL_START   = "    <Cell>";
+  private static final String CELL_END     = "    </Cell>";
+  private static final String ENTITY1      = "      <entity1 rdf:resource=\"";
+  private static final String ENTITY2      = "      <entity2 rdf:resource=\"";
+  private static final String ENTITY_END   = "\"/>";
+  private static final String RELATION_EQ  = "      <relation>=</relation>";
+  private static final String RELATION_LT  = "      <relation>&lt;</relation>";
+  private static final String RELATION_GT  = "      <relation>&gt;</relation>";
+  private static final String RELATION_UNK = "      <relation>?</relation>";
+  private static final String MEASURE      = "      <measure rdf:datatype=\"xsd:float\">%.1f</measure>";
+
+  private final Writer m_writer;
+
+  private LongConsumer m_progress   = null;
+  private long m_progress_interval  = 0;
+  private long m_number_of_cells    = 0;
+
+  /**
+   * The last measure and its element, which are reused since most of the cells share the same measure.
+   */
+  private double m_last_measure     = Double.NaN;
+  private String m_last_measure_elm = null;
+
+  /**
+   * @param writer the writer, which is buffered here
+   */
+  public OAEIAlignmentWriter(Writer writer) {
+    m_writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, 1 << 16);
+  }
+
+  /**
+   * @param out the output stream, which is encoded in UTF-8
+   */
+  public OAEIAlignmentWriter(OutputStream out) {
+    this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param path the output path
+   * @param b_gzip true means the output is gzip compressed
+   * @throws IOException if the file can not be created
+   */
+  public OAEIAlignmentWriter(String path, boolean b_gzip) throws IOException {
+    this(open(path, b_gzip));
+  }
+
+  private static OutputStream open(String path, boolean b_gzip) throws IOException {
+    OutputStream out = new FileOutputStream(path);
+    if (b_gzip) {
+      try {
+        return new GZIPOutputStream(out, 1 << 16);
+      } catch (IOException e) {
+        out.close();
+        throw e;
+      }
+    }
+    return out;
+  }
+
+  /**
+   * @param progress the callback receiving the number of written cells
+   * @param interval the callback is invoked every interval cells and after the tail
+   */
+  public void setProgressCallback(LongConsumer progress, long interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("The interval should be positive.");
+    }
+    m_progress          = progress;
+    m_progress_interval = interval;
+  }
+
+  private void writeln(String s) throws IOException {
+    m_writer.write(s);
+    m_writer.write(NEWLINE);
+  }
+
+  public void writeHead() throws IOException {
+    m_writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>");
+    m_writer.write(NEWLINE);
+    m_writer.write("<rdf:RDF xmlns=\"http://knowledgeweb.semanticweb.org/heterogeneity/alignment\"");
+    m_writer.write(NEWLINE);
+    m_writer.write("  xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"");
+    m_writer.write(NEWLINE);
+    m_writer.write("  xmlns:xsd=\"http://www.w3.org/2001/XMLSchema#\">");
+    m_writer.write(NEWLINE);
+    writeln("<Alignment>");
+    writeln("  <xml>yes</xml>");
+    writeln("  <level>0</level>");
+    writeln("  <type>??</type>");
+  }
+
+  private String measureElement(double measure) {
+    if (m_last_measure_elm == null || Double.compare(measure, m_last_measure) != 0) {
+      m_last_measure     = measure;
+      m_last_measure_elm = String.format(MEASURE, measure);
+    }
+    return m_last_measure_elm;
+  }
+
+  public void writeCell(MappingCell c) throws IOException {
+    writeln(MAP_START);
+    writeln(CELL_START);
+
+    m_writer.write(ENTITY1);
+    m_writer.write(String.valueOf(c.getEntity1()));
+    writeln(ENTITY_END);
+
+    m_writer.write(ENTITY2);
+    m_writer.write(String.valueOf(c.getEntity2()));
+    writeln(ENTITY_END);
+
+    if (c.isEQ()) {
+      writeln(RELATION_EQ);
+    } else if (c.isLT()) {
+      writeln(RELATION_LT);
+    } else if (c.isGT()) {
+      writeln(RELATION_GT);
+    } else {
+      writeln(RELATION_UNK);
+    }
+
+    writeln(measureElement(c.getMeasure()));
+
+    writeln(CELL_END);
+    writeln(MAP_END);
+
+    ++m_number_of_cells;
+    if (m_progress != null && m_number_of_cells % m_progress_interval == 0) {
+      m_progress.accept(m_number_of_cells);
+    }
+  }
+
+  public void writeTail() throws IOException {
+    writeln("</Alignment>");
+    m_writer.write("</rdf:RDF>");
+    m_writer.flush();
+
+    if (m_progress != null) {
+      m_progress.accept(m_number_of_cells);
+    }
+  }
+
+  /**
+   * Write the whole document of the cells
+   *
+   * @param cells the cells, e.g. a Mapping or a CompactMapping
+   * @throws IOException if failed to write
+   */
+  public void write(Iterable<MappingCell> cells) throws IOException {
+    writeHead();
+    for (MappingCell c : cells) {
+      writeCell(c);
+    }
+    writeTail();
+  }
+
+  /**
+   * @return the number of written cells
+   */
+  public long getNumberOfCells() {
+    return m_number_of_cells;
+  }
+
+  @Override
+  public void close() throws IOException {
+    m_writer.close();
+  }
+}
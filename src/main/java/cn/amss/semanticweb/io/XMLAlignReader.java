@@ -10,12 +10,20 @@ package cn.amss.semanticweb.io;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.net.URL;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
 
+import cn.amss.semanticweb.alignment.MappingCell;
+
 public class XMLAlignReader extends MappingReader
 {
   public XMLAlignReader(URL url) throws Exception {
@@ -23,19 +31,74 @@ public class XMLAlignReader extends MappingReader
   }
 
   public XMLAlignReader(String file_path) throws Exception {
-    this(new FileInputStream(new File(file_path)));
+    try (InputStream in = new FileInputStream(new File(file_path))) {
+      read(in, new Consumer<MappingCell>() {
+        @Override
+        public void accept(MappingCell c) {
+          m_mappings.add(c);
+        }
+      });
+    }
   }
 
   public XMLAlignReader(InputStream in) throws Exception {
-    XMLInputFactory factory = XMLInputFactory.newInstance();
     m_mappings.clear();
 
+    read(in, new Consumer<MappingCell>() {
+      @Override
+      public void accept(MappingCell c) {
+        m_mappings.add(c);
+      }
+    });
+  }
+
+  /**
+   * Wrap the input by its magic number, i.e. gzip, zip (the first file entry) or plain.
+   */
+  static InputStream decompress(InputStream in) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(in, 1 << 16);
+    buffered.mark(4);
+    int b0 = buffered.read();
+    int b1 = buffered.read();
+    int b2 = buffered.read();
+    int b3 = buffered.read();
+    buffered.reset();
+
+    if (b0 == 0x1f && b1 == 0x8b) {
+      return new GZIPInputStream(buffered, 1 << 16);
+    }
+
+    if (b0 == 'P' && b1 == 'K' && b2 == 3 && b3 == 4) {
+      ZipInputStream zip = new ZipInputStream(buffered);
+      for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+        if (!e.isDirectory()) {
+          return zip;
+        }
+      }
+      throw new IOException("No file entry in the zip input.");
+    }
+
+    return buffered;
+  }
+
+  /**
+   * Parse the alignment and hand each cell to the consumer as soon as it is parsed,
+   * so that the alignment is never held in memory. The input may be gzip or zip compressed.
+   *
+   * @param in the input stream, which is not closed
+   * @param consumer the consumer of the cells
+   * @return the number of cells
+   * @throws Exception if failed to read or parse
+   */
+  public static long read(InputStream in, Consumer<? super MappingCell> consumer) throws Exception {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    long n = 0;
     String iri1, iri2, relation, confidence;
     iri1 = iri2 = relation = confidence = "";
 
-    for (XMLStreamReader reader = factory.createXMLStreamReader(in);
-         reader.hasNext();
-         reader.next()) {
+    XMLStreamReader reader = factory.createXMLStreamReader(decompress(in));
+    for (; reader.hasNext(); reader.next()) {
       if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
         if (reader.hasName()) {
           if (reader.getLocalName().equals(CELL)) {
@@ -62,10 +125,26 @@ public class XMLAlignReader extends MappingReader
       else if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
         if (reader.hasName()) {
           if (reader.getLocalName().equals(CELL)) {
-            m_mappings.add(iri1, iri2, relation, confidence);
+            consumer.accept(new MappingCell(iri1, iri2, relation, confidence));
+            ++n;
           }
         }
       }
     }
+    reader.close();
+
+    return n;
+  }
+
+  /**
+   * @param file_path the path of the alignment, which may be gzip or zip compressed
+   * @param consumer the consumer of the cells
+   * @return the number of cells
+   * @throws Exception if failed to read or parse
+   */
+  public static long read(String file_path, Consumer<? super MappingCell> consumer) throws Exception {
+    try (InputStream in = new FileInputStream(new File(file_path))) {
+      return read(in, consumer);
+    }
   }
 }
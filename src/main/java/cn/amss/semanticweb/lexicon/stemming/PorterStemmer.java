@@ -259,10 +259,17 @@ public class PorterStemmer
     if (b[k] == 'l' && doubleConsonant(k) && numOfConsonantSeq() > 1) --k;
   }
 
-  public void setCurrent(String value) {
-    for (char ch : value.toCharArray()) {
-      ch = Character.toLowerCase(ch);
-      add(ch);
+  /**
+   * Reset the stemmer, so that it could be reused for another word.
+   */
+  public void reset() {
+    offset = end = 0;
+    j = k = 0;
+  }
+
+  public void setCurrent(CharSequence value) {
+    for (int i = 0; i < value.length(); ++i) {
+      add(Character.toLowerCase(value.charAt(i)));
     }
   }
 
@@ -283,4 +290,17 @@ public class PorterStemmer
     stem();
     return getCurrent();
   }
+
+  /**
+   * Stem the word into the caller's buffer without allocating a string.
+   *
+   * @param word the word
+   * @param out the buffer which the stem is appended to
+   */
+  public void stem(CharSequence word, StringBuilder out) {
+    reset();
+    setCurrent(word);
+    stem();
+    out.append(b, 0, end);
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * StemCache.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the MIT license.
+ */
+
+package cn.amss.semanticweb.lexicon.stemming;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded and thread-safe cache of word to its Porter stem.
+ *
+ * The words are spread over several segments, each of which is a least-recently-used map guarded by
+ * its own lock, and the stemming itself runs outside the locks with a stemmer per thread.
+ * The hit and miss counters help to size the cache.
+ */
+public class StemCache
+{
+  private static final int NUMBER_OF_SEGMENTS = 16;
+
+  private final Segment[] segments;
+  private final int capacity;
+
+  private final AtomicLong hits   = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private static final ThreadLocal<PorterStemmer> stemmer = new ThreadLocal<PorterStemmer>() {
+    @Override
+    protected PorterStemmer initialValue() {
+      return new PorterStemmer();
+    }
+  };
+
+  private static class Segment extends LinkedHashMap<String, String>
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final int max_size;
+
+    Segment(int max_size) {
+      super(16, 0.75f, true);
+      this.max_size = max_size;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > max_size;
+    }
+  }
+
+  /**
+   * @param capacity the most number of words kept in the cache
+   */
+  public StemCache(int capacity) {
+    if (capacity < NUMBER_OF_SEGMENTS) {
+      throw new IllegalArgumentException("The capacity should be at least " + NUMBER_OF_SEGMENTS + ".");
+    }
+
+    this.capacity = capacity;
+    segments = new Segment[NUMBER_OF_SEGMENTS];
+    for (int i = 0; i < NUMBER_OF_SEGMENTS; ++i) {
+      segments[i] = new Segment(capacity / NUMBER_OF_SEGMENTS);
+    }
+  }
+
+  private Segment segmentOf(String word) {
+    int h = word.hashCode();
+    return segments[(h ^ (h >>> 16)) & (NUMBER_OF_SEGMENTS - 1)];
+  }
+
+  /**
+   * @param word the word
+   * @return the Porter stem of the word
+   */
+  public String stem(String word) {
+    Segment segment = segmentOf(word);
+
+    String s;
+    synchronized (segment) {
+      s = segment.get(word);
+    }
+
+    if (s != null) {
+      hits.incrementAndGet();
+      return s;
+    }
+
+    misses.incrementAndGet();
+    s = stemmer.get().mutate(word);
+
+    synchronized (segment) {
+      segment.put(word, s);
+    }
+    return s;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int size() {
+    int n = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        n += segment.size();
+      }
+    }
+    return n;
+  }
+
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+    hits.set(0);
+    misses.set(0);
+  }
+}
@@ -7,7 +7,35 @@
 
 package cn.amss.semanticweb.matching;
 
+import org.apache.jena.rdf.model.Property;
+
+import java.util.Collection;
+
+import cn.amss.semanticweb.lexicon.stemming.StemCache;
+
 public interface LexicalMatcher extends Matcher, MatcherSetting
 {
   public void setUseStripDiacritics(boolean b);
+
+  /**
+   * Set the predicates whose literals are taken as the labels of a resource,
+   * rdfs:label and skos:prefLabel, altLabel, hiddenLabel by default.
+   * NOTE: the streaming mode of OntModelWrapper keeps the literals of the default predicates only.
+   *
+   * @param predicates the label predicates
+   */
+  public void setLabelPredicates(Collection<? extends Property> predicates);
+
+  /**
+   * Set the cache of Porter stems, e.g. a larger one sized by the hit and miss counters of a previous run,
+   * or one shared by several matchers. Each matcher owns a cache of 65536 words by default.
+   *
+   * @param cache the stem cache
+   */
+  public void setStemCache(StemCache cache);
+
+  /**
+   * @return the stem cache of this matcher, e.g. to read its hit and miss counters
+   */
+  public StemCache getStemCache();
 }
@@ -8,6 +8,8 @@
 package cn.amss.semanticweb.matching;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import cn.amss.semanticweb.fca.Hermes;
 import cn.amss.semanticweb.matching.impl.MatcherBase;
@@ -37,6 +39,8 @@ public abstract class MatcherByFCA extends MatcherBase
   protected boolean extract_from_GSH     = true;
   protected boolean extract_from_Lattice = true;
 
+  protected ExecutorService m_executor = null;
+
   public void setExtractType(boolean b_GSH, boolean b_Lattice) {
     extract_from_GSH     = b_GSH;
     extract_from_Lattice = b_Lattice;
@@ -88,12 +92,30 @@ public abstract class MatcherByFCA extends MatcherBase
     m_Lattice_most_size_of_attributes  = attributes_most;
   }
 
+  public void setExecutor(ExecutorService executor) {
+    m_executor = executor;
+  }
+
+  /**
+   * @return the executor set by setExecutor, otherwise the common fork/join pool
+   */
+  protected ExecutorService executor() {
+    return m_executor != null ? m_executor : ForkJoinPool.commonPool();
+  }
+
+  protected <O, A> Hermes<O, A> createHermes() {
+    return new Hermes<>(m_executor);
+  }
+
   protected <O, A> Set<Set<O>> extractExtentsFromGSH(Hermes<O, A> hermes) {
     return hermes.listSimplifiedExtentsLeastMost(m_GSH_least_size_of_objects,    m_GSH_most_size_of_objects,
                                                  m_GSH_least_size_of_attributes, m_GSH_most_size_of_attributes);
   }
 
   protected <O, A> Set<Set<O>> extractExtentsFromLattice(Hermes<O, A> hermes) {
+    if (m_Lattice_least_size_of_objects == 2 && m_Lattice_most_size_of_objects == 2) {
+      return hermes.listPairExtents(m_Lattice_least_size_of_attributes, m_Lattice_most_size_of_attributes);
+    }
     return hermes.listExtentsLeastMost(m_Lattice_least_size_of_objects,    m_Lattice_most_size_of_objects,
                                        m_Lattice_least_size_of_attributes, m_Lattice_most_size_of_attributes);
   }
@@ -0,0 +1,194 @@
+/*
+ * MatcherRunner.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.matching;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.EnumMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import cn.amss.semanticweb.alignment.Mapping;
+
+/**
+ * Run the independent passes (instances, classes and properties) of a matcher concurrently,
+ * each of which collects its own mappings, and merge them into one mapping afterwards.
+ *
+ * The ontologies should be in memory, since the read transaction of the TDB2 mode is bound to the loading thread.
+ * If the executor is also the one of the matcher (see MatcherSetting.setExecutor), it should be a ForkJoinPool,
+ * so that the waiting passes help to run the tasks of Hermes instead of blocking the pool.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class MatcherRunner
+{
+  private final static Logger m_logger = LogManager.getLogger(MatcherRunner.class.getName());
+
+  public enum Pass
+  {
+    INSTANCES,
+    ONT_CLASSES,
+    ONT_PROPERTIES,
+    DATATYPE_PROPERTIES,
+    OBJECT_PROPERTIES
+  }
+
+  private final Matcher m_matcher;
+  private final int m_max_threads;
+  private final ExecutorService m_executor;
+
+  private final Map<Pass, Mapping> m_mappings = new EnumMap<>(Pass.class);
+  private final Map<Pass, Long> m_millis      = new EnumMap<>(Pass.class);
+
+  /**
+   * @param matcher the matcher whose ontologies are set
+   * @param max_threads the most number of passes run at the same time
+   */
+  public MatcherRunner(Matcher matcher, int max_threads) {
+    if (max_threads < 1) {
+      throw new IllegalArgumentException("The number of threads should be positive.");
+    }
+    m_matcher     = matcher;
+    m_max_threads = max_threads;
+    m_executor    = null;
+  }
+
+  /**
+   * @param matcher the matcher whose ontologies are set
+   * @param executor the executor which runs the passes, it is not shut down by the runner
+   */
+  public MatcherRunner(Matcher matcher, ExecutorService executor) {
+    m_matcher     = matcher;
+    m_max_threads = 0;
+    m_executor    = executor;
+  }
+
+  private class PassTask implements Callable<Mapping> {
+    private final Pass pass;
+
+    PassTask(Pass pass) {
+      this.pass = pass;
+    }
+
+    @Override
+    public Mapping call() {
+      Mapping mappings = new Mapping();
+
+      long start = System.nanoTime();
+      switch (pass) {
+        case INSTANCES:
+          m_matcher.mapInstances(mappings);
+          break;
+        case ONT_CLASSES:
+          m_matcher.mapOntClasses(mappings);
+          break;
+        case ONT_PROPERTIES:
+          m_matcher.mapOntProperties(mappings);
+          break;
+        case DATATYPE_PROPERTIES:
+          m_matcher.mapDatatypeProperties(mappings);
+          break;
+        case OBJECT_PROPERTIES:
+          m_matcher.mapObjectProperties(mappings);
+          break;
+      }
+      long millis = (System.nanoTime() - start) / 1000000;
+
+      synchronized (MatcherRunner.this) {
+        m_millis.put(pass, millis);
+      }
+
+      if (m_logger.isInfoEnabled()) {
+        m_logger.info(String.format("Pass %s finished in %d ms, #Mappings: %10d.", pass, millis, mappings.size()));
+      }
+      return mappings;
+    }
+  }
+
+  /**
+   * Run the passes concurrently, the results of the previous run are discarded.
+   *
+   * @param passes the passes to be run
+   * @return the merged mappings of all of the passes
+   */
+  public Mapping run(Pass... passes) {
+    List<PassTask> tasks = new ArrayList<>();
+    for (Pass p : passes) {
+      tasks.add(new PassTask(p));
+    }
+
+    synchronized (this) {
+      m_mappings.clear();
+      m_millis.clear();
+    }
+
+    ExecutorService executor = m_executor;
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(Math.max(1, Math.min(m_max_threads, tasks.size())));
+    }
+
+    Mapping merged = new Mapping();
+    try {
+      List<Future<Mapping>> futures = executor.invokeAll(tasks);
+      for (int i = 0; i < futures.size(); ++i) {
+        Mapping mappings = futures.get(i).get();
+        synchronized (this) {
+          m_mappings.put(passes[i], mappings);
+        }
+        merged.addAll(mappings);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running the matching passes.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to run the matching passes.", e.getCause());
+    } finally {
+      if (m_executor == null) {
+        executor.shutdown();
+      }
+    }
+
+    return merged;
+  }
+
+  /**
+   * Run all of the passes except ONT_PROPERTIES, which overlaps the datatype and object properties.
+   *
+   * @return the merged mappings
+   */
+  public Mapping run() {
+    return run(Pass.INSTANCES, Pass.ONT_CLASSES, Pass.DATATYPE_PROPERTIES, Pass.OBJECT_PROPERTIES);
+  }
+
+  /**
+   * @param pass the pass
+   * @return the mappings found by the pass in the last run, null if not run
+   */
+  public synchronized Mapping getMapping(Pass pass) {
+    return m_mappings.get(pass);
+  }
+
+  /**
+   * @param pass the pass
+   * @return the elapsed time of the pass in the last run in milliseconds, -1 if not run
+   */
+  public synchronized long getMillis(Pass pass) {
+    Long millis = m_millis.get(pass);
+    return millis == null ? -1 : millis;
+  }
+}
@@ -7,6 +7,8 @@
 
 package cn.amss.semanticweb.matching;
 
+import java.util.concurrent.ExecutorService;
+
 import cn.amss.semanticweb.model.OntModelWrapper;
 
 /**
@@ -69,4 +71,12 @@ public interface MatcherSetting
    * @param target the ontology model wrapper of target
    */
   public void setSourceTargetOntModelWrapper(OntModelWrapper source, OntModelWrapper target);
+
+  /**
+   * Set the executor of computing the AOC-poset, which could be shared by several matchers.
+   * The models of a TDB2-backed OntModelWrapper are read on the caller's thread only, as its transaction is.
+   *
+   * @param executor the executor, null means the common fork/join pool
+   */
+  public void setExecutor(ExecutorService executor);
 }
@@ -11,7 +11,8 @@ import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.rdf.model.SimpleSelector;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.vocabulary.RDF;
 
 import java.util.Set;
@@ -19,6 +20,11 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import cn.amss.semanticweb.fca.Hermes;
 import cn.amss.semanticweb.model.OntModelWrapper;
@@ -118,29 +124,101 @@ public class AdditionalPropertyMatcherImpl extends MatcherByFCA implements Addit
     addContextFromSO(context, p, subject_class_mappings, object_class_mappings);
   }
 
+  /**
+   * The context of one property, whose statements are listed through the predicate index of the model.
+   */
+  private static final <T extends Resource> Set<SubjectObject> acquirePropertyContext(T p,
+                                                                                      int from_id,
+                                                                                      Map<Resource, Set<MappingCell>> m) {
+    if (p.getURI() == null || p.getModel() == null) return new HashSet<>();
+
+    Map<ResourceWrapper<T>, Set<SubjectObject>> context = new HashMap<>();
+
+    ResourceWrapper<T> rw = new ResourceWrapper<T>(p, from_id);
+    Property predicate = ResourceFactory.createProperty(p.getURI());
+    for (StmtIterator it = p.getModel().listStatements(null, predicate, (RDFNode) null); it.hasNext(); ) {
+      Statement stmt = it.nextStatement();
+      if (!stmt.getObject().isResource()) continue;
+
+      Resource subject = stmt.getSubject();
+      Resource object  = stmt.getObject().asResource();
+
+      addContextFromSO(context, rw, m, subject, object);
+    }
+
+    Set<SubjectObject> s = context.get(rw);
+    return s == null ? new HashSet<SubjectObject>() : s;
+  }
+
+  private static class PropertyContextTask<T extends Resource> implements Callable<Set<SubjectObject>> {
+    private final T property;
+    private final int from_id;
+    private final Map<Resource, Set<MappingCell>> m;
+
+    PropertyContextTask(T property, int from_id, Map<Resource, Set<MappingCell>> m) {
+      this.property = property;
+      this.from_id  = from_id;
+      this.m        = m;
+    }
+
+    @Override
+    public Set<SubjectObject> call() {
+      return acquirePropertyContext(property, from_id, m);
+    }
+  }
+
+  /**
+   * @return true if the statements of a property are read in a transaction, e.g. of a TDB2-backed model
+   */
+  private static <T extends Resource> boolean isTransactional(List<T> properties) {
+    for (T p : properties) {
+      if (p.getModel() != null && p.getModel().supportsTransactions()) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Add the context of each property, the properties are independent so they are acquired in parallel.
+   * A transaction (e.g. the read transaction of a TDB2-backed OntModelWrapper) is bound to the thread which
+   * began it, so the properties of a transactional model are acquired on the caller's thread instead.
+   */
   private <T extends Resource> void addContext(Set<T> properties,
                                                int from_id,
                                                Map<Resource, Set<MappingCell>> m,
                                                Map<ResourceWrapper<T>, Set<SubjectObject>> context) {
-    for (final T p : properties) {
-
-      StmtIterator it = p.getModel().listStatements(
-            new SimpleSelector(null, null, (RDFNode) null) {
-              @Override
-              public boolean selects(Statement s) {
-                return s.getPredicate().getURI().equals(p.getURI()) && s.getObject().isResource();
-              }
-            }
-          );
-
-      while (it.hasNext()) {
-        Statement stmt = it.nextStatement();
+    List<T> ps = new ArrayList<>(properties);
+    List<PropertyContextTask<T>> tasks = new ArrayList<>();
+    for (T p : ps) {
+      tasks.add(new PropertyContextTask<T>(p, from_id, m));
+    }
 
-        Resource subject = stmt.getSubject();
-        Resource object  = stmt.getObject().asResource();
+    List<Set<SubjectObject>> results = new ArrayList<>();
+    try {
+      if (tasks.size() == 1 || isTransactional(ps)) {
+        for (PropertyContextTask<T> task : tasks) {
+          results.add(task.call());
+        }
+      } else {
+        for (Future<Set<SubjectObject>> f : executor().invokeAll(tasks)) {
+          results.add(f.get());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while constructing the context of properties.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to construct the context of properties.", e.getCause());
+    }
 
-        ResourceWrapper<T> rw = new ResourceWrapper<T>(p, from_id);
-        addContextFromSO(context, rw, m, subject, object);
+    for (int i = 0; i < ps.size(); ++i) {
+      if (!results.get(i).isEmpty()) {
+        ResourceWrapper<T> rw = new ResourceWrapper<T>(ps.get(i), from_id);
+        Set<SubjectObject> s = context.get(rw);
+        if (s == null) {
+          context.put(rw, results.get(i));
+        } else {
+          s.addAll(results.get(i));
+        }
       }
     }
   }
@@ -231,7 +309,7 @@ public class AdditionalPropertyMatcherImpl extends MatcherByFCA implements Addit
   public <T extends Resource> void matchProperties(Set<T> sources, Set<T> targets, Mapping mappings) {
     Map<ResourceWrapper<T>, Set<SubjectObject>> context = constructContext(sources, targets, m_property_anchors);
 
-    Hermes<ResourceWrapper<T>, SubjectObject> hermes = new Hermes<>();
+    Hermes<ResourceWrapper<T>, SubjectObject> hermes = createHermes();
     hermes.init(context);
     hermes.compute();
 
@@ -258,7 +336,7 @@ public class AdditionalPropertyMatcherImpl extends MatcherByFCA implements Addit
   private <T extends Resource> void mapAdditionalProperties(Set<T> sources, Set<T> targets, Mapping mappings) {
     Map<ResourceWrapper<T>, Set<SubjectObject>> context = constructContext(sources, targets, m_property_anchors);
 
-    Hermes<ResourceWrapper<T>, SubjectObject> hermes = new Hermes<>();
+    Hermes<ResourceWrapper<T>, SubjectObject> hermes = createHermes();
     hermes.init(context);
     hermes.compute();
 
@@ -7,28 +7,30 @@
 
 package cn.amss.semanticweb.matching.impl;
 
-import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.vocabulary.RDFS;
-import org.apache.jena.vocabulary.SKOS;
 
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Collection;
 import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.StringTokenizer;
 
 import cn.amss.semanticweb.matching.LexicalMatcher;
 import cn.amss.semanticweb.matching.MatcherByFCA;
 import cn.amss.semanticweb.alignment.Mapping;
 import cn.amss.semanticweb.model.ResourceWrapper;
-import cn.amss.semanticweb.lexicon.stemming.PorterStemmer;
+import cn.amss.semanticweb.model.LabelIndex;
+import cn.amss.semanticweb.lexicon.stemming.StemCache;
 import cn.amss.semanticweb.text.Normalize;
 import cn.amss.semanticweb.fca.Hermes;
+import cn.amss.semanticweb.util.Dictionary;
 import cn.amss.semanticweb.vocabulary.DBkWik;
 
 /**
@@ -48,52 +50,58 @@ public class LexicalMatcherImpl extends MatcherByFCA implements LexicalMatcher
 
   private static boolean use_strip_diacritics = true;
 
+  private static final int default_stem_cache_capacity = 1 << 16;
+
+  /**
+   * The stem cache of this matcher, which is shared only if set to several matchers by setStemCache.
+   */
+  private StemCache stem_cache = new StemCache(default_stem_cache_capacity);
+
+  private List<Property> label_predicates = LabelIndex.DEFAULT_LABEL_PREDICATES;
+
+  /**
+   * The label index of each model, built on first use and shared by all of the passes.
+   */
+  private final Map<Model, LabelIndex> label_indexes = new IdentityHashMap<>();
+
   public LexicalMatcherImpl() {
   }
 
-  private static Set<String> acquireAllTokens(String norm_str, boolean use_stemmer) {
+  private int[] acquireAllTokenIds(String norm_str, boolean use_stemmer, Dictionary<String> tokens) {
     StringTokenizer tokenizer = new StringTokenizer(norm_str, delimiter_characters, return_delimiter);
-    Set<String> tokens  = new HashSet<>();
+    int[] token_ids = new int[tokenizer.countTokens()];
+    int n = 0;
     while (tokenizer.hasMoreTokens()) {
       String token = tokenizer.nextToken();
       if (use_stemmer) {
-        PorterStemmer stm = new PorterStemmer();
-        token = stm.mutate(token);
+        token = stem_cache.stem(token);
       }
-      tokens.add(token);
+      token_ids[n++] = tokens.intern(token);
     }
-    return tokens;
+    return token_ids;
   }
 
-  private static Set<String> acquireAllLiteralsLexicalFormsWith(Resource resource, Property property, boolean b_lowercase) {
-    Set<String> s = new HashSet<>();
-    for (StmtIterator it = resource.listProperties(property); it.hasNext(); ) {
-      Statement stmt = it.nextStatement();
-      RDFNode object = stmt.getObject();
-      if (object.isLiteral()) {
-        String lb = object.asLiteral().getString();
-        if (lb != null && !lb.equals("")) {
-          if (b_lowercase) {
-            s.add(lb.toLowerCase());
-          } else {
-            s.add(lb);
-          }
-        }
-      }
+  private synchronized LabelIndex getLabelIndex(Model model) {
+    LabelIndex index = label_indexes.get(model);
+    if (index == null) {
+      index = new LabelIndex(model, label_predicates);
+      label_indexes.put(model, index);
     }
-    return s;
+    return index;
   }
 
-  private static Set<String> acquireLabelOrName(Resource resource, boolean b_lowercase) {
+  private Set<String> acquireLabelOrName(Resource resource, boolean b_lowercase) {
     Set<String> labelOrName = new HashSet<>();
 
-    labelOrName.addAll(acquireAllLiteralsLexicalFormsWith(resource, RDFS.label, b_lowercase));
-
-    labelOrName.addAll(acquireAllLiteralsLexicalFormsWith(resource, SKOS.prefLabel, b_lowercase));
-
-    labelOrName.addAll(acquireAllLiteralsLexicalFormsWith(resource, SKOS.altLabel, b_lowercase));
-
-    labelOrName.addAll(acquireAllLiteralsLexicalFormsWith(resource, SKOS.hiddenLabel, b_lowercase));
+    if (resource.getModel() != null) {
+      for (String lb : getLabelIndex(resource.getModel()).getLabels(resource)) {
+        if (b_lowercase) {
+          labelOrName.add(lb.toLowerCase());
+        } else {
+          labelOrName.add(lb);
+        }
+      }
+    }
 
     if (labelOrName.isEmpty()) {
       String name = resource.getLocalName();
@@ -139,26 +147,36 @@ public class LexicalMatcherImpl extends MatcherByFCA implements LexicalMatcher
     constructLabelOrName2ResourcesTable(targets, m, m_target_id, b_lowercase);
   }
 
-  private Map<String, Set<String>> constructContextLexicalForm(Set<String> labelOrNames) {
-    Map<String, Set<String>> context = new HashMap<>();
-    if (labelOrNames == null) return context;
-
-    for (String ln : labelOrNames) {
-      String norm_ln = ln;
-
-      if (use_normalize_case_style) {
-        norm_ln = Normalize.normalizeCaseStyle(norm_ln);
-      }
+  /**
+   * Construct the context of label (or name) to its tokens, where the tokens are interned into the dictionary.
+   *
+   * @param labelOrNames the labels (or names), indexed by their identities
+   * @param tokens the dictionary of tokens
+   * @return the token identities of each label (or name)
+   */
+  private int[][] constructContextLexicalForm(List<String> labelOrNames, Dictionary<String> tokens) {
+    int[][] context = new int[labelOrNames.size()][];
+
+    for (int i = 0; i < context.length; ++i) {
+      String norm_ln = labelOrNames.get(i);
+
+      if (use_normalize_case_style && use_remove_S) {
+        norm_ln = Normalize.normalize(norm_ln, use_strip_diacritics);
+      } else {
+        if (use_normalize_case_style) {
+          norm_ln = Normalize.normalizeCaseStyle(norm_ln);
+        }
 
-      if (use_strip_diacritics) {
-        norm_ln = Normalize.stripDiacritics(norm_ln);
-      }
+        if (use_strip_diacritics) {
+          norm_ln = Normalize.stripDiacritics(norm_ln);
+        }
 
-      if (use_remove_S) {
-        norm_ln = Normalize.removeS(norm_ln);
+        if (use_remove_S) {
+          norm_ln = Normalize.removeS(norm_ln);
+        }
       }
 
-      context.put(ln, acquireAllTokens(norm_ln, use_porter_stemmer));
+      context[i] = acquireAllTokenIds(norm_ln, use_porter_stemmer, tokens);
     }
 
     return context;
@@ -294,10 +312,11 @@ public class LexicalMatcherImpl extends MatcherByFCA implements LexicalMatcher
     Map<String, Set<ResourceWrapper<T>>> labelOrName2Resources = new HashMap<>();
     constructLabelOrName2ResourcesTable(sources, targets, labelOrName2Resources, to_lower_case);
 
-    Set<String> labelOrNames         = labelOrName2Resources.keySet();
-    Map<String, Set<String>> context = constructContextLexicalForm(labelOrNames);
-    Hermes<String, String> hermes    = new Hermes<>();
-    hermes.init(context);
+    List<String> labelOrNames = new ArrayList<>(labelOrName2Resources.keySet());
+    Dictionary<String> tokens = new Dictionary<>(labelOrNames.size());
+    int[][] context           = constructContextLexicalForm(labelOrNames, tokens);
+    Hermes<String, String> hermes = createHermes();
+    hermes.init(labelOrNames, tokens.keys(), context);
     hermes.compute();
 
     Set<Set<String>> simplified_extents = null, extents = null;
@@ -329,10 +348,11 @@ public class LexicalMatcherImpl extends MatcherByFCA implements LexicalMatcher
       constructLabelOrName2ResourcesTable(e.getValue(), labelOrName2Resources, e.getKey(), to_lower_case);
     }
 
-    Set<String> labelOrNames         = labelOrName2Resources.keySet();
-    Map<String, Set<String>> context = constructContextLexicalForm(labelOrNames);
-    Hermes<String, String> hermes    = new Hermes<>();
-    hermes.init(context);
+    List<String> labelOrNames = new ArrayList<>(labelOrName2Resources.keySet());
+    Dictionary<String> tokens = new Dictionary<>(labelOrNames.size());
+    int[][] context           = constructContextLexicalForm(labelOrNames, tokens);
+    Hermes<String, String> hermes = createHermes();
+    hermes.init(labelOrNames, tokens.keys(), context);
     hermes.compute();
 
     Set<Set<String>> simplified_extents = null, extents = null;
@@ -402,4 +422,31 @@ public class LexicalMatcherImpl extends MatcherByFCA implements LexicalMatcher
   public void setUseStripDiacritics(boolean b) {
     use_strip_diacritics = b;
   }
+
+  @Override
+  public synchronized void setLabelPredicates(Collection<? extends Property> predicates) {
+    label_predicates = new ArrayList<Property>(predicates);
+    label_indexes.clear();
+  }
+
+  @Override
+  public void setStemCache(StemCache cache) {
+    if (cache == null) {
+      throw new IllegalArgumentException("The stem cache should not be null.");
+    }
+    stem_cache = cache;
+  }
+
+  @Override
+  public StemCache getStemCache() {
+    return stem_cache;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    synchronized (this) {
+      label_indexes.clear();
+    }
+  }
 }
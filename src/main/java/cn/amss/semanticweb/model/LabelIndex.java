@@ -0,0 +1,99 @@
+/*
+ * LabelIndex.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.model;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The index of subject to the lexical forms of its labels in a model, which is built in a single scan
+ * per label predicate rather than by probing every predicate of every resource. Read-only once built.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class LabelIndex
+{
+  /**
+   * rdfs:label, skos:prefLabel, skos:altLabel and skos:hiddenLabel
+   */
+  public static final List<Property> DEFAULT_LABEL_PREDICATES = Collections.unmodifiableList(Arrays.asList(
+        RDFS.label, SKOS.prefLabel, SKOS.altLabel, SKOS.hiddenLabel));
+
+  private final Map<Resource, Set<String>> m_labels = new HashMap<>();
+  private final List<Property> m_predicates;
+
+  /**
+   * @param model the model to be indexed
+   * @param predicates the label predicates
+   */
+  public LabelIndex(Model model, Collection<? extends Property> predicates) {
+    m_predicates = Collections.unmodifiableList(new ArrayList<Property>(predicates));
+
+    for (Property p : m_predicates) {
+      for (StmtIterator it = model.listStatements(null, p, (RDFNode) null); it.hasNext(); ) {
+        Statement stmt = it.nextStatement();
+        RDFNode object = stmt.getObject();
+        if (object.isLiteral()) {
+          String lb = object.asLiteral().getString();
+          if (lb != null && !lb.equals("")) {
+            Resource subject = stmt.getSubject();
+            Set<String> s = m_labels.get(subject);
+            if (s == null) {
+              s = new HashSet<>();
+              m_labels.put(subject, s);
+            }
+            s.add(lb);
+          }
+        }
+      }
+    }
+  }
+
+  public LabelIndex(Model model) {
+    this(model, DEFAULT_LABEL_PREDICATES);
+  }
+
+  /**
+   * @param resource the resource
+   * @return the read-only lexical forms of the labels of the resource, empty if none
+   */
+  public Set<String> getLabels(Resource resource) {
+    Set<String> s = m_labels.get(resource);
+    if (s == null) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(s);
+  }
+
+  public List<Property> getPredicates() {
+    return m_predicates;
+  }
+
+  /**
+   * @return the number of labelled subjects
+   */
+  public int size() {
+    return m_labels.size();
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * OntModelLoader.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.model;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Load several ontologies (e.g. source, target and intermediate) concurrently on a bounded executor,
+ * and report the load time (parsing and acquiring the classes, properties and instances) and the number of
+ * triples of each file.
+ *
+ * The disk-backed TDB2 mode is not supported here, since its read transaction is bound to the loading thread.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class OntModelLoader
+{
+  private final static Logger m_logger = LogManager.getLogger(OntModelLoader.class.getName());
+
+  private final int m_max_threads;
+  private final ExecutorService m_executor;
+
+  private final List<String> m_files        = new ArrayList<>();
+  private final List<Boolean> m_streaming   = new ArrayList<>();
+  private final List<Long> m_load_millis    = new ArrayList<>();
+  private final List<Long> m_triples        = new ArrayList<>();
+
+  /**
+   * @param max_threads the most number of files parsed at the same time
+   */
+  public OntModelLoader(int max_threads) {
+    if (max_threads < 1) {
+      throw new IllegalArgumentException("The number of threads should be positive.");
+    }
+    m_max_threads = max_threads;
+    m_executor    = null;
+  }
+
+  /**
+   * @param executor the executor which parses the files, it is not shut down by the loader
+   */
+  public OntModelLoader(ExecutorService executor) {
+    m_max_threads = 0;
+    m_executor    = executor;
+  }
+
+  /**
+   * Add a file to be loaded
+   *
+   * @param file the file path or url of the ontology
+   * @param b_streaming true means the streaming mode of OntModelWrapper
+   * @return the index of the file
+   */
+  public synchronized int add(String file, boolean b_streaming) {
+    m_files.add(file);
+    m_streaming.add(b_streaming);
+    m_load_millis.add(-1L);
+    m_triples.add(-1L);
+    return m_files.size() - 1;
+  }
+
+  public int add(String file) {
+    return add(file, false);
+  }
+
+  private class LoadTask implements Callable<OntModelWrapper> {
+    private final int index;
+
+    LoadTask(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public OntModelWrapper call() {
+      long start = System.nanoTime();
+      OntModelWrapper wrapper = new OntModelWrapper(m_files.get(index), m_streaming.get(index));
+      long millis = (System.nanoTime() - start) / 1000000;
+
+      synchronized (OntModelLoader.this) {
+        m_load_millis.set(index, millis);
+        m_triples.set(index, wrapper.getNumberOfTriples());
+      }
+
+      if (m_logger.isInfoEnabled()) {
+        m_logger.info(String.format("Loaded %s in %d ms, #Triples: %10d.", m_files.get(index), millis,
+                                    wrapper.getNumberOfTriples()));
+      }
+      return wrapper;
+    }
+  }
+
+  /**
+   * Load all of the added files concurrently
+   *
+   * @return the wrappers in the order of the added files
+   */
+  public List<OntModelWrapper> load() {
+    List<LoadTask> tasks = new ArrayList<>();
+    for (int i = 0; i < m_files.size(); ++i) {
+      tasks.add(new LoadTask(i));
+    }
+
+    ExecutorService executor = m_executor;
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(Math.max(1, Math.min(m_max_threads, m_files.size())));
+    }
+
+    List<OntModelWrapper> wrappers = new ArrayList<>();
+    try {
+      // NOTE: invokeAll waits for every task, so the wrappers loaded before a failure are closed before rethrowing.
+      ExecutionException failure = null;
+      for (Future<OntModelWrapper> f : executor.invokeAll(tasks)) {
+        try {
+          wrappers.add(f.get());
+        } catch (ExecutionException e) {
+          if (failure == null) failure = e;
+        }
+      }
+
+      if (failure != null) {
+        for (OntModelWrapper w : wrappers) {
+          w.close();
+        }
+        if (failure.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) failure.getCause();
+        }
+        throw new IllegalStateException("Failed to load the ontologies.", failure.getCause());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading the ontologies.", e);
+    } finally {
+      if (m_executor == null) {
+        executor.shutdown();
+      }
+    }
+
+    return wrappers;
+  }
+
+  /**
+   * @param index the index of the file
+   * @return the load time (parsing and acquiring) of the file in milliseconds, -1 if not loaded
+   */
+  public synchronized long getLoadMillis(int index) {
+    return m_load_millis.get(index);
+  }
+
+  /**
+   * @param index the index of the file
+   * @return the number of triples of the file, -1 if not loaded
+   */
+  public synchronized long getNumberOfTriples(int index) {
+    return m_triples.get(index);
+  }
+}
@@ -9,11 +9,25 @@ package cn.amss.semanticweb.model;
 
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.io.InputStream;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.apache.jena.vocabulary.SKOS;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -41,6 +55,11 @@ public class OntModelWrapper
   private Model m_raw_model   = null;
   private OntModel m_ontology = null;
 
+  /**
+   * The disk-backed TDB2 dataset, null means the model is in memory
+   */
+  private Dataset m_dataset   = null;
+
   private Set<Individual> m_instances   = null;
 
   private Set<OntProperty> m_properties               = null;
@@ -49,6 +68,23 @@ public class OntModelWrapper
 
   private Set<OntClass> m_classes       = null;
 
+  /**
+   * The predicates of the literals kept in streaming mode
+   */
+  private static final Set<Node> m_label_predicates = new HashSet<>(Arrays.asList(
+        RDFS.label.asNode(), SKOS.prefLabel.asNode(), SKOS.altLabel.asNode(), SKOS.hiddenLabel.asNode()));
+
+  /**
+   * The types declaring a class and a property in streaming mode, as listClasses and listAllOntProperties of OWL_MEM
+   */
+  private static final Set<Node> m_class_types = new HashSet<>(Arrays.asList(
+        OWL.Class.asNode(), OWL.Restriction.asNode()));
+
+  private static final Set<Node> m_property_types = new HashSet<>(Arrays.asList(
+        RDF.Property.asNode(), OWL.ObjectProperty.asNode(), OWL.DatatypeProperty.asNode(),
+        OWL.AnnotationProperty.asNode(), OWL.OntologyProperty.asNode(), OWL.FunctionalProperty.asNode(),
+        OWL.InverseFunctionalProperty.asNode(), OWL.SymmetricProperty.asNode(), OWL.TransitiveProperty.asNode()));
+
   /**
    * Initial member variables
    */
@@ -87,6 +123,97 @@ public class OntModelWrapper
     read(in);
   }
 
+  /**
+   * Initial ontology model from input stream of RDF/XML
+   *
+   * @param in the input stream of the ontology
+   * @param b_streaming true means stream the triples and keep only the ones needed by matchers
+   */
+  public OntModelWrapper(InputStream in, boolean b_streaming) {
+    this();
+    if (b_streaming) {
+      readStreaming(in, Lang.RDFXML);
+    } else {
+      read(in);
+    }
+  }
+
+  /**
+   * Initial ontology model from an ontology file, whose syntax is guessed by its extension (RDF/XML by default)
+   *
+   * @param file the file path or url of the ontology
+   * @param b_streaming true means stream the triples and keep only the ones needed by matchers
+   */
+  public OntModelWrapper(String file, boolean b_streaming) {
+    this();
+    InputStream in = FileManager.get().open(file);
+
+    if (null == in) {
+      throw new IllegalArgumentException( "File: " + file + " not found.");
+    }
+
+    if (b_streaming) {
+      readStreaming(in, RDFLanguages.filenameToLang(file, Lang.RDFXML));
+    } else {
+      read(in);
+    }
+  }
+
+  /**
+   * Initial ontology model on a disk-backed TDB2 dataset, so the heap is not bounded by the size of the ontology.
+   * The file is loaded only if the dataset is empty, hence later runs reuse the dataset without parsing again.
+   * A read transaction is held until close, which is bound to the constructing thread as every Jena transaction,
+   * so the wrapper should be used (e.g. matched) on that thread.
+   *
+   * @param file the file path or url of the ontology, whose syntax is guessed by its extension (RDF/XML by default)
+   * @param tdb_directory the directory of the TDB2 dataset, which is created if absent
+   */
+  public OntModelWrapper(String file, String tdb_directory) {
+    this();
+    m_raw_model.close();
+
+    m_dataset = TDB2Factory.connectDataset(tdb_directory);
+
+    try {
+      m_dataset.begin(ReadWrite.READ);
+      boolean b_empty = m_dataset.getDefaultModel().isEmpty();
+      m_dataset.end();
+
+      if (b_empty) {
+        InputStream in = FileManager.get().open(file);
+
+        if (null == in) {
+          throw new IllegalArgumentException( "File: " + file + " not found.");
+        }
+
+        m_dataset.begin(ReadWrite.WRITE);
+        try {
+          RDFDataMgr.read(m_dataset.getDefaultModel(), in, RDFLanguages.filenameToLang(file, Lang.RDFXML));
+          m_dataset.commit();
+        } finally {
+          m_dataset.end();
+        }
+      } else if (m_logger.isInfoEnabled()) {
+        m_logger.info("Reuse the TDB2 dataset: " + tdb_directory + ".");
+      }
+
+      m_dataset.begin(ReadWrite.READ);
+      m_raw_model = m_dataset.getDefaultModel();
+
+      clear();
+      acquire();
+    } catch (RuntimeException e) {
+      // NOTE: the wrapper is never returned, so release the dataset here, or its read transaction is never ended.
+      if (m_dataset.isInTransaction()) {
+        m_dataset.end();
+      }
+      m_dataset.close();
+      m_dataset = null;
+      clear();
+      throw e;
+    }
+  }
+
   /**
    * Read model from input stream and acquired the specified instances, properties and classes
    *
@@ -98,6 +225,129 @@ public class OntModelWrapper
     clear();
 
     m_raw_model.read(in, null);
+
+    acquire();
+  }
+
+  /**
+   * Stream the triples through a RIOT sink, which keeps only the triples needed by the matchers: rdf:type,
+   * the labels, and the edges from a resource to a resource (e.g. object property values). The other literals
+   * (e.g. comments, abstracts and datatype values) and the blank node structures (e.g. restrictions and lists)
+   * are dropped. The classes and properties are classified by their rdf:type declarations on the fly, so the
+   * OWL_MEM scans over the whole graph are never run.
+   *
+   * NOTE: only the resources with uris are classified, as the blank node triples are not kept.
+   *
+   * @param in input stream of model
+   * @param lang the syntax of the input
+   */
+  private void readStreaming(InputStream in, Lang lang) {
+    if (null == in) return;
+
+    clear();
+
+    final Graph graph = m_raw_model.getGraph();
+    final Node type   = RDF.type.asNode();
+
+    final Set<Node> classes             = new LinkedHashSet<>();
+    final Set<Node> properties          = new LinkedHashSet<>();
+    final Set<Node> datatype_properties = new LinkedHashSet<>();
+    final Set<Node> object_properties   = new LinkedHashSet<>();
+
+    final long[] number_of_triples = new long[1];
+    RDFDataMgr.parse(new StreamRDFBase() {
+      @Override
+      public void triple(Triple t) {
+        ++number_of_triples[0];
+
+        Node s = t.getSubject(), p = t.getPredicate(), o = t.getObject();
+        if (!s.isURI()) return;
+
+        if (o.isLiteral()) {
+          if (m_label_predicates.contains(p)) graph.add(t);
+          return;
+        }
+
+        if (!o.isURI()) return;
+        graph.add(t);
+
+        if (p.equals(type)) {
+          if (m_class_types.contains(o)) {
+            classes.add(s);
+          } else if (m_property_types.contains(o)) {
+            properties.add(s);
+            if (o.equals(OWL.DatatypeProperty.asNode())) {
+              datatype_properties.add(s);
+            } else if (o.equals(OWL.ObjectProperty.asNode())) {
+              object_properties.add(s);
+            }
+          }
+        }
+      }
+    }, in, lang);
+
+    if (m_logger.isInfoEnabled()) {
+      m_logger.info(String.format("#Triples: %10d, #Kept: %10d.", number_of_triples[0], graph.size()));
+    }
+
+    acquireStreamed(classes, properties, datatype_properties, object_properties);
+  }
+
+  /**
+   * Acquire the declared resources through the ontology view of the reduced graph, which is built without scans.
+   * An instance is a subject typed owl:Thing or typed by a declared class, as listIndividuals without reasoner.
+   */
+  private void acquireStreamed(Set<Node> classes, Set<Node> properties,
+                               Set<Node> datatype_properties, Set<Node> object_properties) {
+    m_ontology = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM, m_raw_model);
+
+    Graph graph = m_raw_model.getGraph();
+    Set<Node> instance_types = new LinkedHashSet<>(classes);
+    instance_types.add(OWL.Thing.asNode());
+
+    Set<Node> instances = new HashSet<>();
+    for (Node c : instance_types) {
+      for (ExtendedIterator<Triple> it = graph.find(Node.ANY, RDF.type.asNode(), c); it.hasNext(); ) {
+        Node s = it.next().getSubject();
+        if (!instances.add(s)) continue;
+
+        Individual i = m_ontology.getIndividual(s.getURI());
+        if (i == null || isSkipInstance(i)) continue;
+        m_instances.add(i);
+      }
+    }
+
+    for (Node n : properties) {
+      OntProperty p = m_ontology.getOntProperty(n.getURI());
+      if (p == null || isSkipProperty(p)) continue;
+      m_properties.add(p);
+    }
+
+    for (Node n : datatype_properties) {
+      DatatypeProperty p = m_ontology.getDatatypeProperty(n.getURI());
+      if (p == null || isSkipProperty(p)) continue;
+      m_datatype_properties.add(p);
+    }
+
+    for (Node n : object_properties) {
+      ObjectProperty p = m_ontology.getObjectProperty(n.getURI());
+      if (p == null || isSkipProperty(p)) continue;
+      m_object_properties.add(p);
+    }
+
+    for (Node n : classes) {
+      OntClass c = m_ontology.getOntClass(n.getURI());
+      if (c == null || isSkipClass(c)) continue;
+      m_classes.add(c);
+    }
+
+    logSizes();
+  }
+
+  /**
+   * Acquire the specified instances, properties and classes from the raw model
+   */
+  private void acquire() {
     m_ontology = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM, m_raw_model);
 
     acquireInstances();
@@ -110,6 +360,10 @@ public class OntModelWrapper
 
     acquireClasses();
 
+    logSizes();
+  }
+
+  private void logSizes() {
     if (m_logger.isInfoEnabled()) {
       m_logger.info(String.format("#Instances: %8d, #Properties: %8d, #DatatypeProperties: %8d, #ObjectProperties: %8d, #Classes: %8d.",
                     m_instances.size(), m_properties.size(), m_datatype_properties.size(), m_object_properties.size(), m_classes.size()));
@@ -217,6 +471,15 @@ public class OntModelWrapper
    * Close the model wrapper
    */
   public final void close() {
+    if (m_dataset != null) {
+      // NOTE: closing the models would close the shared dataset, which is reused later.
+      if (m_dataset.isInTransaction()) {
+        m_dataset.end();
+      }
+      clear();
+      return;
+    }
+
     if (m_raw_model != null && !m_raw_model.isClosed()) {
       m_raw_model.close();
     }
@@ -228,6 +491,16 @@ public class OntModelWrapper
     clear();
   }
 
+  /**
+   * Get the number of triples in the raw model, which are the kept ones in streaming mode
+   *
+   * @return the number of triples, or 0 if the model is closed
+   */
+  public long getNumberOfTriples() {
+    if (m_raw_model == null || m_raw_model.isClosed()) return 0;
+    return m_raw_model.size();
+  }
+
   /**
    * Get the hash set of instances
    *
@@ -0,0 +1,356 @@
+/*
+ * BatchEvaluation.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.statistics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+import cn.amss.semanticweb.alignment.CompactMapping;
+import cn.amss.semanticweb.alignment.Mapping;
+import cn.amss.semanticweb.alignment.MappingCell;
+import cn.amss.semanticweb.util.AlignmentIndex;
+import cn.amss.semanticweb.io.XMLAlignReader;
+import cn.amss.semanticweb.util.ConfusionMatrix;
+
+/**
+ * Evaluate many system alignments (e.g. of a parameter sweep) against one reference concurrently.
+ * The reference is split into classes, properties and instances and indexed once, and the DBkWik types
+ * of the uris are cached across all of the systems. The systems read from files are kept as CompactMapping,
+ * so a large sweep is held in memory as interned identities until it is evaluated.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class BatchEvaluation
+{
+  private final static Logger m_logger = LogManager.getLogger(BatchEvaluation.class.getName());
+
+  public enum Category
+  {
+    INSTANCE,
+    PROPERTY,
+    CLASS,
+    OVERALL
+  }
+
+  /**
+   * The evaluation of a system alignment
+   */
+  public static class Result
+  {
+    private final String name;
+    private final ConfusionMatrix[] matrices;
+    private final int[] sizes;
+    private final long millis;
+
+    Result(String name, ConfusionMatrix[] matrices, int[] sizes, long millis) {
+      this.name     = name;
+      this.matrices = matrices;
+      this.sizes    = sizes;
+      this.millis   = millis;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public ConfusionMatrix getConfusionMatrix(Category c) {
+      return matrices[c.ordinal()];
+    }
+
+    /**
+     * @param c the category
+     * @return the number of system cells in the category, which are not less than the threshold
+     */
+    public int getSize(Category c) {
+      return sizes[c.ordinal()];
+    }
+
+    /**
+     * @return the elapsed time of the evaluation in milliseconds
+     */
+    public long getMillis() {
+      return millis;
+    }
+  }
+
+  private final int m_max_threads;
+  private final ExecutorService m_executor;
+
+  private final ConcurrentMap<String, String> m_type_cache = new ConcurrentHashMap<>();
+  private final AlignmentIndex[] m_reference_indexes = new AlignmentIndex[Category.values().length];
+
+  private final List<String> m_names    = new ArrayList<>();
+  private final List<Iterable<MappingCell>> m_systems = new ArrayList<>();
+
+  private double m_threshold             = Double.NEGATIVE_INFINITY;
+  private boolean m_left_duplicate_free  = false;
+  private boolean m_right_duplicate_free = false;
+
+  private List<Result> m_results = new ArrayList<>();
+
+  /**
+   * @param reference the reference alignment
+   * @param max_threads the most number of systems evaluated at the same time
+   */
+  public BatchEvaluation(Mapping reference, int max_threads) {
+    if (max_threads < 1) {
+      throw new IllegalArgumentException("The number of threads should be positive.");
+    }
+    m_max_threads = max_threads;
+    m_executor    = null;
+    indexReference(reference);
+  }
+
+  /**
+   * @param reference the reference alignment
+   * @param executor the executor which evaluates the systems, it is not shut down by the batch
+   */
+  public BatchEvaluation(Mapping reference, ExecutorService executor) {
+    m_max_threads = 0;
+    m_executor    = executor;
+    indexReference(reference);
+  }
+
+  private void indexReference(Mapping reference) {
+    Iterable<MappingCell>[] parts = split(reference);
+    for (Category c : Category.values()) {
+      m_reference_indexes[c.ordinal()] = new AlignmentIndex(parts[c.ordinal()]);
+    }
+  }
+
+  private Iterable<MappingCell>[] split(Iterable<MappingCell> m) {
+    Mapping clzz = new Mapping();
+    Mapping prop = new Mapping();
+    Mapping inst = new Mapping();
+    Evaluation.getAlignmentTypes(m, clzz, prop, inst, m_type_cache);
+
+    @SuppressWarnings("unchecked")
+    Iterable<MappingCell>[] parts = new Iterable[Category.values().length];
+    parts[Category.INSTANCE.ordinal()] = inst;
+    parts[Category.PROPERTY.ordinal()] = prop;
+    parts[Category.CLASS.ordinal()]    = clzz;
+    parts[Category.OVERALL.ordinal()]  = m;
+    return parts;
+  }
+
+  /**
+   * @param name the name of the system, e.g. its parameters
+   * @param system the system alignment
+   * @return the index of the system
+   */
+  public int add(String name, Mapping system) {
+    m_names.add(name);
+    m_systems.add(system);
+    return m_systems.size() - 1;
+  }
+
+  /**
+   * @param name the name of the system, e.g. its parameters
+   * @param system the compact system alignment
+   * @return the index of the system
+   */
+  public int add(String name, CompactMapping system) {
+    m_names.add(name);
+    m_systems.add(system);
+    return m_systems.size() - 1;
+  }
+
+  /**
+   * Read a system alignment into a CompactMapping, without holding its cells as objects.
+   *
+   * @param name the name of the system, e.g. its parameters
+   * @param file_path the path of the alignment, which may be gzip or zip compressed
+   * @return the index of the system
+   * @throws Exception if failed to read or parse
+   */
+  public int addFile(String name, String file_path) throws Exception {
+    final CompactMapping system = new CompactMapping();
+    XMLAlignReader.read(file_path, new Consumer<MappingCell>() {
+      @Override
+      public void accept(MappingCell c) {
+        system.add(c);
+      }
+    });
+    return add(name, system);
+  }
+
+  /**
+   * @param threshold the least confidence of the evaluated system cells, all of them by default
+   */
+  public void setThreshold(double threshold) {
+    m_threshold = threshold;
+  }
+
+  public void setDuplicateFree(boolean left_duplicate_free, boolean right_duplicate_free) {
+    m_left_duplicate_free  = left_duplicate_free;
+    m_right_duplicate_free = right_duplicate_free;
+  }
+
+  /**
+   * @return the number of cells not less than the threshold, i.e. the cells counted by the confusion matrix
+   */
+  private static int countAtLeast(Iterable<MappingCell> m, double threshold) {
+    int n = 0;
+    for (MappingCell mc : m) {
+      if (mc.getMeasure() >= threshold) ++n;
+    }
+    return n;
+  }
+
+  private class EvaluationTask implements Callable<Result> {
+    private final int index;
+
+    EvaluationTask(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public Result call() {
+      long start = System.nanoTime();
+
+      Iterable<MappingCell>[] parts = split(m_systems.get(index));
+      ConfusionMatrix[] matrices = new ConfusionMatrix[parts.length];
+      int[] sizes = new int[parts.length];
+      for (int i = 0; i < parts.length; ++i) {
+        matrices[i] = m_reference_indexes[i].evaluate(parts[i], m_threshold, m_left_duplicate_free, m_right_duplicate_free);
+        sizes[i]    = countAtLeast(parts[i], m_threshold);
+      }
+
+      long millis = (System.nanoTime() - start) / 1000000;
+
+      if (m_logger.isInfoEnabled()) {
+        ConfusionMatrix overall = matrices[Category.OVERALL.ordinal()];
+        m_logger.info(String.format("Evaluated %s in %d ms, pre.: %.2f, f1m.: %.2f, rec.: %.2f.", m_names.get(index),
+                                    millis, overall.getPrecision(), overall.getF1measure(), overall.getRecall()));
+      }
+      return new Result(m_names.get(index), matrices, sizes, millis);
+    }
+  }
+
+  /**
+   * Evaluate all of the added systems concurrently
+   *
+   * @return the results in the order of the added systems
+   */
+  public List<Result> evaluate() {
+    List<EvaluationTask> tasks = new ArrayList<>();
+    for (int i = 0; i < m_systems.size(); ++i) {
+      tasks.add(new EvaluationTask(i));
+    }
+
+    ExecutorService executor = m_executor;
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(Math.max(1, Math.min(m_max_threads, tasks.size())));
+    }
+
+    List<Result> results = new ArrayList<>();
+    try {
+      for (Future<Result> f : executor.invokeAll(tasks)) {
+        results.add(f.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while evaluating the alignments.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to evaluate the alignments.", e.getCause());
+    } finally {
+      if (m_executor == null) {
+        executor.shutdown();
+      }
+    }
+
+    m_results = results;
+    return results;
+  }
+
+  public List<Result> getResults() {
+    return m_results;
+  }
+
+  private static String csvField(String s) {
+    if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+      return s;
+    }
+    return "\"" + s.replace("\"", "\"\"") + "\"";
+  }
+
+  private static String jsonString(String s) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); ++i) {
+      char ch = s.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        sb.append('\\').append(ch);
+      } else if (ch < 0x20) {
+        sb.append(String.format("\\u%04x", (int) ch));
+      } else {
+        sb.append(ch);
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  /**
+   * Write the results of the last evaluation as CSV, a row per system and category
+   *
+   * @param out the output
+   * @throws IOException if failed to write
+   */
+  public void writeCSV(Appendable out) throws IOException {
+    out.append("name,category,precision,recall,f1,tp,fp,fn,size,millis\n");
+    for (Result r : m_results) {
+      for (Category c : Category.values()) {
+        ConfusionMatrix m = r.getConfusionMatrix(c);
+        out.append(String.format(Locale.ROOT, "%s,%s,%.4f,%.4f,%.4f,%d,%d,%d,%d,%d\n", csvField(r.getName()),
+                                 c.name().toLowerCase(Locale.ROOT), m.getPrecision(), m.getRecall(), m.getF1measure(),
+                                 m.getTruePositive(), m.getFalsePositive(), m.getFalseNegative(), r.getSize(c),
+                                 r.getMillis()));
+      }
+    }
+  }
+
+  /**
+   * Write the results of the last evaluation as a JSON array, an object per system
+   *
+   * @param out the output
+   * @throws IOException if failed to write
+   */
+  public void writeJSON(Appendable out) throws IOException {
+    out.append("[");
+    for (int i = 0; i < m_results.size(); ++i) {
+      Result r = m_results.get(i);
+      out.append(i == 0 ? "\n" : ",\n");
+      out.append(String.format(Locale.ROOT, "  {\"name\": %s, \"millis\": %d", jsonString(r.getName()), r.getMillis()));
+      for (Category c : Category.values()) {
+        ConfusionMatrix m = r.getConfusionMatrix(c);
+        out.append(String.format(Locale.ROOT,
+                                 ", \"%s\": {\"precision\": %.4f, \"recall\": %.4f, \"f1\": %.4f, " +
+                                 "\"tp\": %d, \"fp\": %d, \"fn\": %d, \"size\": %d}",
+                                 c.name().toLowerCase(Locale.ROOT), m.getPrecision(), m.getRecall(), m.getF1measure(),
+                                 m.getTruePositive(), m.getFalsePositive(), m.getFalseNegative(), r.getSize(c)));
+      }
+      out.append("}");
+    }
+    out.append("\n]\n");
+  }
+}
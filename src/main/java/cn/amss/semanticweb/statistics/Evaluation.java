@@ -10,6 +10,7 @@ package cn.amss.semanticweb.statistics;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -18,6 +19,7 @@ import cn.amss.semanticweb.alignment.Mapping;
 import cn.amss.semanticweb.alignment.MappingCell;
 import cn.amss.semanticweb.vocabulary.DBkWik;
 import cn.amss.semanticweb.util.ConfusionMatrix;
+import cn.amss.semanticweb.util.AlignmentIndex;
 
 public class Evaluation
 {
@@ -38,10 +40,36 @@ public class Evaluation
   private Mapping m_property_system = null;
   private Mapping m_instance_system = null;
 
-  private static final void getAlignmentTypes(Mapping m, Mapping clzz, Mapping prop, Mapping inst) {
+  private AlignmentIndex m_reference_index          = null;
+  private AlignmentIndex m_class_reference_index    = null;
+  private AlignmentIndex m_property_reference_index = null;
+  private AlignmentIndex m_instance_reference_index = null;
+
+  private double m_threshold = Double.NEGATIVE_INFINITY;
+
+  /**
+   * @param uri the uri
+   * @param type_cache the cache of uri to its DBkWik type, null means no cache
+   * @return the DBkWik type of the uri
+   */
+  static final String getType(String uri, ConcurrentMap<String, String> type_cache) {
+    if (uri == null || type_cache == null) {
+      return DBkWik.getType(uri);
+    }
+
+    String type = type_cache.get(uri);
+    if (type == null) {
+      type = DBkWik.getType(uri);
+      type_cache.putIfAbsent(uri, type);
+    }
+    return type;
+  }
+
+  static final void getAlignmentTypes(Iterable<MappingCell> m, Mapping clzz, Mapping prop, Mapping inst,
+                                      ConcurrentMap<String, String> type_cache) {
     for (MappingCell mc : m) {
-      String source_type = DBkWik.getType(mc.getEntity1());
-      String target_type = DBkWik.getType(mc.getEntity2());
+      String source_type = getType(mc.getEntity1(), type_cache);
+      String target_type = getType(mc.getEntity2(), type_cache);
 
       if (CLASS_TYPES.contains(source_type) && CLASS_TYPES.contains(target_type)) {
         clzz.add(mc);
@@ -55,34 +83,78 @@ public class Evaluation
     }
   }
 
-  public Evaluation(Mapping reference, Mapping system) {
+  private static final void getAlignmentTypes(Mapping m, Mapping clzz, Mapping prop, Mapping inst) {
+    getAlignmentTypes(m, clzz, prop, inst, null);
+  }
+
+  /**
+   * Index the reference once, then evaluate the systems set by setSystem.
+   *
+   * @param reference the reference alignment
+   */
+  public Evaluation(Mapping reference) {
     m_reference = reference;
-    m_system    = system;
 
     m_class_reference    = new Mapping();
     m_property_reference = new Mapping();
     m_instance_reference = new Mapping();
 
+    getAlignmentTypes(reference, m_class_reference, m_property_reference, m_instance_reference);
+
+    m_reference_index          = new AlignmentIndex(m_reference);
+    m_class_reference_index    = new AlignmentIndex(m_class_reference);
+    m_property_reference_index = new AlignmentIndex(m_property_reference);
+    m_instance_reference_index = new AlignmentIndex(m_instance_reference);
+
+    setSystem(new Mapping());
+  }
+
+  public Evaluation(Mapping reference, Mapping system) {
+    this(reference);
+    setSystem(system);
+  }
+
+  public void setSystem(Mapping system) {
+    m_system = system;
+
     m_class_system    = new Mapping();
     m_property_system = new Mapping();
     m_instance_system = new Mapping();
 
-    getAlignmentTypes(reference, m_class_reference, m_property_reference, m_instance_reference);
     getAlignmentTypes(system, m_class_system, m_property_system, m_instance_system);
   }
 
+  /**
+   * @param threshold the least confidence of the evaluated system cells, all of them by default
+   */
+  public void setThreshold(double threshold) {
+    m_threshold = threshold;
+  }
+
+  public ConfusionMatrix evaluateInstances(boolean left_duplicate_free, boolean right_duplicate_free) {
+    return m_instance_reference_index.evaluate(m_instance_system, m_threshold, left_duplicate_free, right_duplicate_free);
+  }
+
+  public ConfusionMatrix evaluateProperties(boolean left_duplicate_free, boolean right_duplicate_free) {
+    return m_property_reference_index.evaluate(m_property_system, m_threshold, left_duplicate_free, right_duplicate_free);
+  }
+
+  public ConfusionMatrix evaluateClasses(boolean left_duplicate_free, boolean right_duplicate_free) {
+    return m_class_reference_index.evaluate(m_class_system, m_threshold, left_duplicate_free, right_duplicate_free);
+  }
+
+  public ConfusionMatrix evaluateOverall(boolean left_duplicate_free, boolean right_duplicate_free) {
+    return m_reference_index.evaluate(m_system, m_threshold, left_duplicate_free, right_duplicate_free);
+  }
+
   public void printResult(boolean left_duplicate_free, boolean right_duplicate_free) {
-    ConfusionMatrix instances_eval  = new ConfusionMatrix(m_instance_system, m_instance_reference,
-                                                          left_duplicate_free, right_duplicate_free);
+    ConfusionMatrix instances_eval  = evaluateInstances(left_duplicate_free, right_duplicate_free);
 
-    ConfusionMatrix properties_eval = new ConfusionMatrix(m_property_system, m_property_reference,
-                                                          left_duplicate_free, right_duplicate_free);
+    ConfusionMatrix properties_eval = evaluateProperties(left_duplicate_free, right_duplicate_free);
 
-    ConfusionMatrix classes_eval    = new ConfusionMatrix(m_class_system, m_class_reference,
-                                                          left_duplicate_free, right_duplicate_free);
+    ConfusionMatrix classes_eval    = evaluateClasses(left_duplicate_free, right_duplicate_free);
 
-    ConfusionMatrix overall_eval    = new ConfusionMatrix(m_system, m_reference,
-                                                          left_duplicate_free, right_duplicate_free);
+    ConfusionMatrix overall_eval    = evaluateOverall(left_duplicate_free, right_duplicate_free);
 
     if (m_logger.isInfoEnabled()) {
       String info = String.format("%nInstance - pre.: %.2f, f1m.: %.2f, rec.: %.2f, #: %8d. (TP: %8d, FP: %8d, FN: %8d)" +
@@ -66,4 +66,91 @@ public class Normalize
   public static final String removeS(String s) {
     return TAIL_WITH_S.matcher(s).replaceAll("");
   }
+
+  /**
+   * The fused normalization, which equals removeS(stripDiacritics(normalizeCaseStyle(s))) or
+   * removeS(normalizeCaseStyle(s)) without stripping, while an ASCII string is done in one scan without regex.
+   *
+   * @param s a text string
+   * @param strip_diacritics true means strip the diacritics
+   * @return a normal string
+   */
+  public static final String normalize(String s, boolean strip_diacritics) {
+    if (s == null || s.isEmpty()) {
+      return s;
+    }
+
+    for (int i = 0; i < s.length(); ++i) {
+      if (s.charAt(i) >= 0x80) {
+        String norm_s = normalizeCaseStyle(s);
+        if (strip_diacritics) {
+          norm_s = stripDiacritics(norm_s);
+        }
+        return removeS(norm_s);
+      }
+    }
+
+    StringBuilder sb = new StringBuilder(s.length());
+    int n = s.length(), from = 0;
+    boolean first = true;
+    for (int i = 1; i <= n; ++i) {
+      // NOTE: an underscore, or a case boundary as RE_CAMELCASE_OR_UNDERSCORE, ends the current word.
+      boolean underscore = s.charAt(i - 1) == '_';
+      if (i < n && !underscore && !isCaseBoundary(s, i)) continue;
+
+      int to = underscore ? i - 1 : i;
+      if (from < to) {
+        if (!first) {
+          appendRemovingS(sb, ' ');
+        }
+        first = false;
+
+        int lo = from, hi = to;
+        while (lo < hi && s.charAt(lo) <= ' ') ++lo;
+        while (lo < hi && s.charAt(hi - 1) <= ' ') --hi;
+
+        for (int k = lo; k < hi; ++k) {
+          char ch = s.charAt(k);
+          // NOTE: the ASCII modifier symbols (\p{IsSk}) are the only ASCII diacritics and friends.
+          if (strip_diacritics && (ch == '^' || ch == '`')) continue;
+          appendRemovingS(sb, ch);
+        }
+      }
+      from = i;
+    }
+
+    if (endsWithS(sb)) {
+      sb.setLength(sb.length() - 2);
+    }
+    return sb.toString();
+  }
+
+  private static boolean isUpperASCII(char ch) {
+    return ch >= 'A' && ch <= 'Z';
+  }
+
+  private static boolean isLowerASCII(char ch) {
+    return ch >= 'a' && ch <= 'z';
+  }
+
+  private static boolean isCaseBoundary(String s, int i) {
+    return isUpperASCII(s.charAt(i)) &&
+           (!isUpperASCII(s.charAt(i - 1)) || (i + 1 < s.length() && isLowerASCII(s.charAt(i + 1))));
+  }
+
+  private static boolean endsWithS(StringBuilder sb) {
+    int n = sb.length();
+    return n >= 2 && sb.charAt(n - 2) == '\'' && sb.charAt(n - 1) == 's';
+  }
+
+  /**
+   * Append a character, and remove the 's before it if the character is a word boundary as RE_TAIL_WITH_S.
+   * The other alternative of RE_TAIL_WITH_S needs an underscore, which never remains after the words are split.
+   */
+  private static void appendRemovingS(StringBuilder sb, char ch) {
+    if (!Character.isLetterOrDigit(ch) && ch != '_' && endsWithS(sb)) {
+      sb.setLength(sb.length() - 2);
+    }
+    sb.append(ch);
+  }
 }
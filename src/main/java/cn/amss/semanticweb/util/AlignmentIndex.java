@@ -0,0 +1,200 @@
+/*
+ * AlignmentIndex.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.util;
+
+import java.util.Arrays;
+
+import cn.amss.semanticweb.alignment.MappingCell;
+
+/**
+ * The index of a reference alignment over interned entity identities, which is built once and evaluates
+ * any number of system alignments (and thresholds) with the same counting as ConfusionMatrix.
+ *
+ * Per evaluation only the system cells touching a reference entity are kept, as packed long pairs in an
+ * open-addressing set, together with the number of distinct counterparts of each reference entity.
+ * Read-only once built, so a single index can be shared by concurrent evaluations.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class AlignmentIndex
+{
+  private static final String NULL = "null";
+
+  private final Dictionary<String> m_sources;
+  private final Dictionary<String> m_targets;
+
+  private final int[] m_reference_sources;
+  private final int[] m_reference_targets;
+
+  private final int m_null_source;
+  private final int m_null_target;
+
+  /**
+   * @param reference the reference alignment, where the entity "null" means no counterpart
+   */
+  public AlignmentIndex(Iterable<MappingCell> reference) {
+    m_sources = new Dictionary<>();
+    m_targets = new Dictionary<>();
+
+    int[] sources = new int[16];
+    int[] targets = new int[16];
+    int n = 0;
+    for (MappingCell mc : reference) {
+      if (n == sources.length) {
+        sources = Arrays.copyOf(sources, n * 2);
+        targets = Arrays.copyOf(targets, n * 2);
+      }
+      sources[n] = m_sources.intern(mc.getEntity1());
+      targets[n] = m_targets.intern(mc.getEntity2());
+      ++n;
+    }
+
+    m_reference_sources = Arrays.copyOf(sources, n);
+    m_reference_targets = Arrays.copyOf(targets, n);
+
+    m_null_source = m_sources.getId(NULL);
+    m_null_target = m_targets.getId(NULL);
+  }
+
+  /**
+   * @return the number of reference cells
+   */
+  public int size() {
+    return m_reference_sources.length;
+  }
+
+  /**
+   * An open-addressing set of distinct system pairs, 0 is reserved for the empty slot.
+   */
+  private static class PairSet
+  {
+    private long[] table = new long[64];
+    private int size = 0;
+
+    private static int spread(long k) {
+      k *= 0x9E3779B97F4A7C15L;
+      return (int) (k ^ (k >>> 32));
+    }
+
+    private int slot(long k) {
+      int mask = table.length - 1;
+      int i = spread(k) & mask;
+      while (table[i] != 0 && table[i] != k) {
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+
+    boolean add(long k) {
+      int i = slot(k);
+      if (table[i] != 0) return false;
+
+      table[i] = k;
+      if (++size * 2 > table.length) {
+        long[] old = table;
+        table = new long[old.length * 2];
+        for (long o : old) {
+          if (o != 0) {
+            table[slot(o)] = o;
+          }
+        }
+      }
+      return true;
+    }
+
+    boolean contains(long k) {
+      return table[slot(k)] != 0;
+    }
+  }
+
+  private static long pair(int source, int target) {
+    return ((long) (source + 1) << 32) | (target + 1L);
+  }
+
+  /**
+   * @param system the system alignment
+   * @param threshold the least confidence of the counted system cells
+   * @param left_duplicate_free true if a source entity has at most one reference counterpart
+   * @param right_duplicate_free true if a target entity has at most one reference counterpart
+   * @return the confusion matrix of the system cells not less than the threshold
+   */
+  public ConfusionMatrix evaluate(Iterable<MappingCell> system, double threshold,
+                                  boolean left_duplicate_free, boolean right_duplicate_free) {
+    int number_of_sources = m_sources.size();
+    int number_of_targets = m_targets.size();
+
+    int[] source_degree = new int[number_of_sources];
+    int[] target_degree = new int[number_of_targets];
+
+    // NOTE: the entities outside the reference are numbered after the reference ones.
+    Dictionary<String> other_sources = new Dictionary<>();
+    Dictionary<String> other_targets = new Dictionary<>();
+
+    PairSet pairs = new PairSet();
+
+    for (MappingCell mc : system) {
+      if (mc.getMeasure() < threshold) continue;
+
+      int s = m_sources.getId(mc.getEntity1());
+      int t = m_targets.getId(mc.getEntity2());
+      if (s < 0 && t < 0) continue;
+
+      if (s < 0) {
+        s = number_of_sources + other_sources.intern(mc.getEntity1());
+      }
+      if (t < 0) {
+        t = number_of_targets + other_targets.intern(mc.getEntity2());
+      }
+
+      if (pairs.add(pair(s, t))) {
+        if (s < number_of_sources) ++source_degree[s];
+        if (t < number_of_targets) ++target_degree[t];
+      }
+    }
+
+    int true_positive = 0, false_positive = 0, false_negative = 0;
+    for (int i = 0; i < m_reference_sources.length; ++i) {
+      int s = m_reference_sources[i];
+      int t = m_reference_targets[i];
+
+      if (t == m_null_target) {
+        false_positive += source_degree[s];
+      }
+      else if (s == m_null_source) {
+        false_positive += target_degree[t];
+      }
+      else if (pairs.contains(pair(s, t))) {
+        ++true_positive; // TP
+
+        if (left_duplicate_free) {
+          false_positive += (target_degree[t] - 1);
+        }
+
+        if (right_duplicate_free) {
+          false_positive += (source_degree[s] - 1);
+        }
+      } else {
+        ++false_negative; // FN
+
+        if (left_duplicate_free) {
+          false_positive += target_degree[t];
+        }
+
+        if (right_duplicate_free) {
+          false_positive += source_degree[s];
+        }
+      }
+    }
+
+    return new ConfusionMatrix(true_positive, false_positive, false_negative);
+  }
+
+  public ConfusionMatrix evaluate(Iterable<MappingCell> system, boolean left_duplicate_free, boolean right_duplicate_free) {
+    return evaluate(system, Double.NEGATIVE_INFINITY, left_duplicate_free, right_duplicate_free);
+  }
+}
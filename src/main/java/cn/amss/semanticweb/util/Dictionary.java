@@ -0,0 +1,117 @@
+/*
+ * Dictionary.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.util;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Intern keys (e.g. labels and tokens) as dense int identities 0..n-1, which are assigned once in the order
+ * of first occurrence. The identities are kept in an open-addressing int table, so no boxed Integer is
+ * allocated per key. Not thread-safe.
+ *
+ * @author Guowei Chen (icgw@outlook.com)
+ */
+public class Dictionary <K>
+{
+  private final List<K> m_keys;
+
+  /**
+   * The identity plus one of each slot, 0 means empty.
+   */
+  private int[] m_table;
+  private int m_mask;
+
+  public Dictionary() {
+    this(16);
+  }
+
+  /**
+   * @param expected_size the expected number of keys
+   */
+  public Dictionary(int expected_size) {
+    int capacity = 16;
+    while (capacity < expected_size * 2) {
+      capacity <<= 1;
+    }
+
+    m_keys  = new ArrayList<>(expected_size);
+    m_table = new int[capacity];
+    m_mask  = capacity - 1;
+  }
+
+  private static int spread(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int slot(K k) {
+    int i = spread(k.hashCode()) & m_mask;
+    while (m_table[i] != 0 && !m_keys.get(m_table[i] - 1).equals(k)) {
+      i = (i + 1) & m_mask;
+    }
+    return i;
+  }
+
+  /**
+   * @param k the non-null key
+   * @return the identity of the key, which is assigned if the key is new
+   */
+  public int intern(K k) {
+    int i = slot(k);
+    if (m_table[i] != 0) {
+      return m_table[i] - 1;
+    }
+
+    int id = m_keys.size();
+    m_keys.add(k);
+    m_table[i] = id + 1;
+
+    if (m_keys.size() * 2 > m_table.length) {
+      rehash();
+    }
+    return id;
+  }
+
+  /**
+   * @param k the key
+   * @return the identity of the key, or -1 if the key is absent
+   */
+  public int getId(K k) {
+    if (k == null) return -1;
+    return m_table[slot(k)] - 1;
+  }
+
+  public K get(int id) {
+    return m_keys.get(id);
+  }
+
+  public int size() {
+    return m_keys.size();
+  }
+
+  /**
+   * @return the read-only keys indexed by their identities
+   */
+  public List<K> keys() {
+    return Collections.unmodifiableList(m_keys);
+  }
+
+  private void rehash() {
+    m_table = new int[m_table.length * 2];
+    m_mask  = m_table.length - 1;
+    for (int id = 0; id < m_keys.size(); ++id) {
+      int i = spread(m_keys.get(id).hashCode()) & m_mask;
+      while (m_table[i] != 0) {
+        i = (i + 1) & m_mask;
+      }
+      m_table[i] = id + 1;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * CompactMappingTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.alignment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompactMappingTest
+{
+  @Test
+  public void testCompactMapping() {
+    Random rand = new Random(17);
+
+    Mapping expected = new Mapping();
+    CompactMapping compact = new CompactMapping(4);
+
+    for (int i = 0; i < 20000; ++i) {
+      String e1 = "http://source.org/e" + rand.nextInt(500);
+      String e2 = "http://target.org/e" + rand.nextInt(500);
+      MappingCell c;
+      if (rand.nextBoolean()) {
+        c = new MappingCell(e1, e2);
+      } else {
+        c = new MappingCell(e1, e2, rand.nextBoolean() ? "&lt;" : "=", rand.nextBoolean() ? "0.5" : "1.0");
+      }
+
+      assertEquals( expected.add(c), compact.add(c) );
+      assertTrue( compact.contains(c) );
+    }
+
+    assertEquals( expected.size(), compact.size() );
+    assertEquals( expected, compact.toMapping() );
+
+    int n = 0;
+    for (MappingCell c : compact) {
+      assertEquals( compact.get(n++).hashCode(), c.hashCode() );
+    }
+    assertEquals( compact.size(), n );
+
+    assertFalse( compact.contains("http://source.org/absent", "http://target.org/e0") );
+    assertTrue( compact.getNumberOfEntities() <= 1000 );
+  }
+}
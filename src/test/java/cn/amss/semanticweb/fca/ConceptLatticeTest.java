@@ -8,14 +8,26 @@
 package cn.amss.semanticweb.fca;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import org.junit.Test;
 
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.Iterator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
 
 public class ConceptLatticeTest
 {
@@ -61,4 +73,329 @@ public class ConceptLatticeTest
 
     assertEquals( answer, cl.getSupSubConcepts() );
   }
+
+  private static Map<Integer, Set<Integer>> randomContext(Random rand, int n_objects, int n_attributes, double density) {
+    Map<Integer, Set<Integer>> context = new HashMap<>();
+    for (int o = 0; o < n_objects; ++o) {
+      Set<Integer> attributes = new HashSet<>();
+      for (int a = 0; a < n_attributes; ++a) {
+        if (rand.nextDouble() < density) {
+          attributes.add(a);
+        }
+      }
+      context.put(o, attributes);
+    }
+    return context;
+  }
+
+  /**
+   * All concepts, as the closures of every subset of the attributes.
+   */
+  private static Set<Concept<Integer, Integer>> allConcepts(Map<Integer, Set<Integer>> context, int n_attributes) {
+    Set<Concept<Integer, Integer>> concepts = new HashSet<>();
+    for (int mask = 0; mask < (1 << n_attributes); ++mask) {
+      Set<Integer> extent = new HashSet<>();
+      for (Map.Entry<Integer, Set<Integer>> e : context.entrySet()) {
+        boolean b_all = true;
+        for (int a = 0; a < n_attributes && b_all; ++a) {
+          b_all = (mask & (1 << a)) == 0 || e.getValue().contains(a);
+        }
+        if (b_all) extent.add(e.getKey());
+      }
+
+      Set<Integer> intent = new HashSet<>();
+      for (int a = 0; a < n_attributes; ++a) {
+        intent.add(a);
+      }
+      for (int o : extent) {
+        intent.retainAll(context.get(o));
+      }
+      concepts.add(new Concept<Integer, Integer>(extent, intent));
+    }
+    return concepts;
+  }
+
+  private static <O, A> boolean isBelow(Concept<O, A> down, Concept<O, A> up) {
+    return !down.equals(up) && up.getExtent().containsAll(down.getExtent());
+  }
+
+  private static <O, A> Map<Concept<O, A>, Set<Concept<O, A>>> bruteForceCovers(Set<Concept<O, A>> concepts) {
+    Map<Concept<O, A>, Set<Concept<O, A>>> covers = new HashMap<>();
+    for (Concept<O, A> up : concepts) {
+      for (Concept<O, A> down : concepts) {
+        if (!isBelow(down, up)) continue;
+
+        boolean b_cover = true;
+        for (Concept<O, A> m : concepts) {
+          if (isBelow(down, m) && isBelow(m, up)) {
+            b_cover = false;
+            break;
+          }
+        }
+
+        if (b_cover) {
+          if (!covers.containsKey(up)) {
+            covers.put(up, new HashSet<Concept<O, A>>());
+          }
+          covers.get(up).add(down);
+        }
+      }
+    }
+    return covers;
+  }
+
+  @Test
+  public void testBuildTopDownOnRandomContexts() {
+    Random rand = new Random(11);
+    for (int round = 0; round < 30; ++round) {
+      int n_attributes = 4 + rand.nextInt(6);
+      Map<Integer, Set<Integer>> context = randomContext(rand, 3 + rand.nextInt(15), n_attributes, 0.2 + rand.nextDouble() * 0.5);
+      Set<Concept<Integer, Integer>> concepts = allConcepts(context, n_attributes);
+
+      ConceptLattice<Integer, Integer> cl = new ConceptLattice<>(concepts);
+      cl.buildTopDown();
+      assertEquals( bruteForceCovers(concepts), cl.getSupSubConcepts() );
+
+      // NOTE: without the top, it falls back to the insertion.
+      Set<Concept<Integer, Integer>> part = new HashSet<>(concepts);
+      for (Concept<Integer, Integer> c : concepts) {
+        if (c.getExtent().size() == context.size()) {
+          part.remove(c);
+        }
+      }
+      if (part.size() == concepts.size()) continue;
+
+      ConceptLattice<Integer, Integer> pl = new ConceptLattice<>(part);
+      pl.buildTopDown();
+      Map<Concept<Integer, Integer>, Set<Concept<Integer, Integer>>> covers = pl.getSupSubConcepts();
+      for (Map.Entry<Concept<Integer, Integer>, Set<Concept<Integer, Integer>>> e : covers.entrySet()) {
+        if (e.getKey() == null) continue;
+        for (Concept<Integer, Integer> down : e.getValue()) {
+          assertTrue( isBelow(down, e.getKey()) );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBuildTopDownOnLargerContexts() {
+    Random rand = new Random(5);
+    for (int n_attributes = 10; n_attributes <= 12; n_attributes += 2) {
+      Map<Integer, Set<Integer>> context = randomContext(rand, 200, n_attributes, 0.5);
+      Set<Concept<Integer, Integer>> concepts = allConcepts(context, n_attributes);
+
+      ConceptLattice<Integer, Integer> cl = new ConceptLattice<>(concepts);
+      cl.buildTopDown();
+      cl.buildBottomUp();
+
+      int edges = 0;
+      for (Map.Entry<Integer, Set<Integer>> e : cl.topDown.entrySet()) {
+        for (int down : e.getValue()) {
+          assertTrue( isBelow(cl.id2Concept.get(down), cl.id2Concept.get(e.getKey())) );
+          ++edges;
+        }
+      }
+
+      for (int cId = 0; cId < cl.numberOfConcepts; ++cId) {
+        assertEquals( cId != cl.topId,    cl.bottomUp.containsKey(cId) );
+        assertEquals( cId != cl.bottomId, cl.topDown.containsKey(cId) );
+      }
+      assertTrue( edges >= cl.numberOfConcepts - 1 );
+    }
+  }
+
+  /**
+   * The timing of iPred (buildTopDown) against the insertion from the top on random contexts, which is skipped
+   * unless run by: mvn test -Dtest=ConceptLatticeTest#benchmarkBuildTopDown -Dbenchmark=true
+   */
+  @Test
+  public void benchmarkBuildTopDown() {
+    assumeTrue( Boolean.getBoolean("benchmark") );
+
+    Random rand = new Random(7);
+    int[][] sizes = { {100, 10}, {200, 12}, {300, 13} };
+    for (int[] size : sizes) {
+      Map<Integer, Set<Integer>> context = randomContext(rand, size[0], size[1], 0.5);
+      Set<Concept<Integer, Integer>> concepts = allConcepts(context, size[1]);
+
+      ConceptLattice<Integer, Integer> by_predecessors = new ConceptLattice<>(concepts);
+      long start = System.nanoTime();
+      by_predecessors.buildTopDown();
+      long predecessors_millis = (System.nanoTime() - start) / 1000000;
+
+      ConceptLattice<Integer, Integer> by_insertion = new ConceptLattice<>(concepts);
+      start = System.nanoTime();
+      by_insertion.buildTopDownByInsertion();
+      long insertion_millis = (System.nanoTime() - start) / 1000000;
+
+      assertEquals( by_insertion.topDown, by_predecessors.topDown );
+      System.out.println(String.format("#Objects: %4d, #Attributes: %3d, #Concepts: %6d, iPred: %8d ms, insertion: %8d ms.",
+                                       size[0], size[1], concepts.size(), predecessors_millis, insertion_millis));
+    }
+  }
+
+  @Test
+  public void testIdentitiesIndependentOfInputOrder() {
+    List<Concept<String, String>> cs = new ArrayList<>();
+    cs.add(new Concept<String, String>(new HashSet<String>(Arrays.asList("a", "b", "c")), new HashSet<String>()));
+    for (String o : Arrays.asList("a", "b", "c")) {
+      cs.add(new Concept<String, String>(new HashSet<String>(Arrays.asList(o)), new HashSet<String>(Arrays.asList("x" + o))));
+    }
+    cs.add(new Concept<String, String>(new HashSet<String>(), new HashSet<String>(Arrays.asList("xa", "xb", "xc"))));
+
+    ConceptLattice<String, String> cl1 = new ConceptLattice<>(new LinkedHashSet<>(cs));
+    Collections.reverse(cs);
+    ConceptLattice<String, String> cl2 = new ConceptLattice<>(new LinkedHashSet<>(cs));
+
+    assertEquals( 5, cl1.numberOfConcepts );
+    assertEquals( cl1.id2Concept, cl2.id2Concept );
+    assertEquals( new HashSet<String>(Arrays.asList("a")), cl1.id2Concept.get(1).getExtent() );
+  }
+
+  @Test
+  public void testConceptsWithSameString() {
+    Concept<Object, String> c1 = new Concept<Object, String>(new HashSet<Object>(Arrays.asList((Object) 1)), new HashSet<String>(Arrays.asList("x")));
+    Concept<Object, String> c2 = new Concept<Object, String>(new HashSet<Object>(Arrays.asList((Object) "1")), new HashSet<String>(Arrays.asList("x")));
+    assertEquals( c1.toString(), c2.toString() );
+
+    ConceptLattice<Object, String> cl = new ConceptLattice<>(new HashSet<>(Arrays.asList(c1, c2)));
+    assertEquals( 2, cl.numberOfConcepts );
+    assertEquals( 2, cl.concept2Id.size() );
+  }
+
+  /**
+   * The former ConceptLattice.dotLangFormat().
+   */
+  private static <O, A> String formerDotLangFormat(ConceptLattice<O, A> cl) {
+    if (cl.topDown == null || cl.topDown.isEmpty()) return "graph { }";
+
+    StringBuilder dotLanguage = new StringBuilder();
+    dotLanguage.append(String.format("%s {%n", "graph"));
+
+    for (Map.Entry<Integer, Concept<O, A>> e : cl.id2Concept.entrySet()) {
+      dotLanguage.append(String.format("  %d [label = \"%s\"];%n", e.getKey(), e.getValue().toString()));
+    }
+
+    for (Map.Entry<Integer, Set<Integer>> e : cl.topDown.entrySet()) {
+      dotLanguage.append(String.format("  %d -- { ", e.getKey()));
+
+      for (Iterator<Integer> it = e.getValue().iterator(); it.hasNext(); ) {
+        dotLanguage.append(String.format("%d", it.next()));
+
+        if (it.hasNext()) {
+          dotLanguage.append(", ");
+        } else {
+          dotLanguage.append(String.format(" };%n"));
+        }
+      }
+    }
+    dotLanguage.append("}");
+
+    return dotLanguage.toString();
+  }
+
+  @Test
+  public void testConceptLatticeExporter() throws Exception {
+    Random rand = new Random(3);
+    Map<Integer, Set<Integer>> context = randomContext(rand, 30, 8, 0.4);
+    Set<Concept<Integer, Integer>> concepts = allConcepts(context, 8);
+
+    ConceptLattice<Integer, Integer> cl = new ConceptLattice<>(concepts);
+    assertEquals( "graph { }", cl.dotLangFormat() );
+
+    cl.buildTopDown();
+    assertEquals( formerDotLangFormat(cl), cl.dotLangFormat() );
+
+    StringBuilder edges = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).writeEdgeList(edges);
+    int n_edges = 0;
+    for (Set<Integer> children : cl.topDown.values()) {
+      n_edges += children.size();
+    }
+    assertEquals( n_edges, edges.toString().split("\n").length );
+
+    // NOTE: the top and its lower covers.
+    StringBuilder top = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).setMaxLevel(1).writeEdgeList(top);
+    assertEquals( cl.topDown.get(cl.topId).size(), top.toString().split("\n").length );
+
+    StringBuilder bounded = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).setExtentSizeBounds(2, 10).setIntentSizeBounds(1, -1).writeEdgeList(bounded);
+    for (String line : bounded.toString().split("\n")) {
+      if (line.isEmpty()) continue;
+      for (String id : line.split(" ")) {
+        Concept<Integer, Integer> c = cl.id2Concept.get(Integer.parseInt(id));
+        assertTrue( c.getExtent().size() >= 2 && c.getExtent().size() <= 10 && c.getIntent().size() >= 1 );
+      }
+    }
+
+    StringBuilder graphml = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).writeGraphML(graphml);
+    Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                   .parse(new ByteArrayInputStream(graphml.toString().getBytes(StandardCharsets.UTF_8)));
+    assertEquals( cl.numberOfConcepts, doc.getElementsByTagName("node").getLength() );
+    assertEquals( n_edges, doc.getElementsByTagName("edge").getLength() );
+  }
+
+  @Test
+  public void testConceptLatticeExporterBeforeBuilding() throws Exception {
+    Set<Concept<String, String>> concepts = new HashSet<>();
+    concepts.add(new Concept<>(new HashSet<>(Arrays.asList("1", "2")), new HashSet<>(Arrays.asList("a"))));
+    concepts.add(new Concept<>(new HashSet<>(Arrays.asList("2")), new HashSet<>(Arrays.asList("a", "b"))));
+
+    ConceptLattice<String, String> cl = new ConceptLattice<>(concepts);
+    cl.topDown = null;
+    ConceptLatticeExporter<String, String> exporter = new ConceptLatticeExporter<>(cl);
+
+    StringBuilder dot = new StringBuilder();
+    exporter.writeDot(dot);
+    assertEquals( "graph { }", dot.toString() );
+
+    StringBuilder graphml = new StringBuilder();
+    exporter.writeGraphML(graphml);
+    Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                   .parse(new ByteArrayInputStream(graphml.toString().getBytes(StandardCharsets.UTF_8)));
+    assertEquals( 1, doc.getElementsByTagName("graph").getLength() );
+    assertEquals( 0, doc.getElementsByTagName("node").getLength() );
+
+    StringBuilder edges = new StringBuilder();
+    exporter.writeEdgeList(edges);
+    assertEquals( "", edges.toString() );
+  }
+
+  @Test
+  public void testConceptLatticeExporterWithoutTop() throws Exception {
+    Set<Concept<String, String>> concepts = new HashSet<>();
+    concepts.add(new Concept<>(new HashSet<>(Arrays.asList("1", "2")), new HashSet<>(Arrays.asList("a"))));
+    concepts.add(new Concept<>(new HashSet<>(Arrays.asList("2", "3")), new HashSet<>(Arrays.asList("b\\"))));
+    concepts.add(new Concept<>(new HashSet<>(Arrays.asList("2")), new HashSet<>(Arrays.asList("a", "b\\"))));
+
+    ConceptLattice<String, String> cl = new ConceptLattice<>(concepts);
+    cl.buildTopDown();
+    assertEquals( -1, cl.topId );
+
+    // NOTE: the lower covers of the virtual top are the concepts of level 0.
+    StringBuilder edges = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).setMaxLevel(1).writeEdgeList(edges);
+    Set<String> lines = new HashSet<>(Arrays.asList(edges.toString().split("\n")));
+    assertEquals( new HashSet<>(Arrays.asList("0 2", "1 2")), lines );
+
+    StringBuilder roots = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).setMaxLevel(0).writeDot(roots);
+    assertTrue( roots.toString().contains("  0 [label") && roots.toString().contains("  1 [label") );
+    assertTrue( !roots.toString().contains("  2 [label") );
+
+    StringBuilder graphml = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).setMaxLevel(5).writeGraphML(graphml);
+    Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                   .parse(new ByteArrayInputStream(graphml.toString().getBytes(StandardCharsets.UTF_8)));
+    assertEquals( 3, doc.getElementsByTagName("node").getLength() );
+    assertEquals( 2, doc.getElementsByTagName("edge").getLength() );
+
+    // NOTE: the backslash of a label is escaped, so it never escapes the closing quote.
+    StringBuilder dot = new StringBuilder();
+    new ConceptLatticeExporter<>(cl).writeDot(dot);
+    assertTrue( dot.toString().contains("b\\\\") );
+    assertTrue( !dot.toString().contains("b\\,") && !dot.toString().contains("b\\]") );
+  }
 }
@@ -8,6 +8,7 @@
 package cn.amss.semanticweb.fca;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
 
 import org.junit.Test;
 
@@ -16,6 +17,11 @@ import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import cn.amss.semanticweb.util.Pair;
 
@@ -175,4 +181,427 @@ public class HermesTest
 
     assertEquals( answer2, h.listAllConcepts() );
   }
+
+  private static Map<Integer, Set<Integer>> randomContext(Random random, int n, int m, double density) {
+    Map<Integer, Set<Integer>> context = new HashMap<>();
+    for (int o = 0; o < n; ++o) {
+      Set<Integer> attributes = new HashSet<>();
+      for (int a = 0; a < m; ++a) {
+        if (random.nextDouble() < density) {
+          attributes.add(a);
+        }
+      }
+      context.put(o, attributes);
+    }
+    return context;
+  }
+
+  private static <K, V> void add(Map<K, Set<V>> m, K k, V v) {
+    m.putIfAbsent(k, new HashSet<V>());
+    m.get(k).add(v);
+  }
+
+  /**
+   * The simplified concepts by the pairwise domination of the previous implementation.
+   */
+  private static <O, A> Set<Pair<Set<O>, Set<A>>> pairwiseSimplifiedConcepts(Map<O, Set<A>> context) {
+    Map<Set<A>, Set<O>> clarified = new HashMap<>();
+    Map<A, Set<O>> attribute2Objects = new HashMap<>();
+    for (Map.Entry<O, Set<A>> e : context.entrySet()) {
+      if (e.getValue().isEmpty()) continue;
+      add(clarified, e.getValue(), e.getKey());
+      for (A a : e.getValue()) {
+        add(attribute2Objects, a, e.getKey());
+      }
+    }
+
+    Map<Set<O>, Set<A>> objects2Attributes = new HashMap<>();
+    for (Map.Entry<A, Set<O>> e : attribute2Objects.entrySet()) {
+      add(objects2Attributes, e.getValue(), e.getKey());
+    }
+
+    Map<Set<A>, Pair<Set<O>, Set<A>>> simplification = new HashMap<>();
+    for (Map.Entry<Set<A>, Set<O>> e : clarified.entrySet()) {
+      simplification.put(e.getKey(), new Pair<Set<O>, Set<A>>(e.getValue(), new HashSet<A>()));
+    }
+
+    for (Map.Entry<Set<O>, Set<A>> r : objects2Attributes.entrySet()) {
+      Set<A> intent = new HashSet<>();
+      for (Map.Entry<Set<O>, Set<A>> k : objects2Attributes.entrySet()) {
+        if (k.getKey().containsAll(r.getKey())) {
+          intent.addAll(k.getValue());
+        }
+      }
+      simplification.putIfAbsent(intent, new Pair<Set<O>, Set<A>>(new HashSet<O>(), new HashSet<A>()));
+      simplification.get(intent).getValue().addAll(r.getValue());
+    }
+
+    return new HashSet<>(simplification.values());
+  }
+
+  @Test
+  public void testSimplificationOnRandomContexts() {
+    Random random = new Random(20191024);
+    for (int t = 0; t < 200; ++t) {
+      int n = 1 + random.nextInt(t < 150 ? 20 : 300);
+      int m = 1 + random.nextInt(t < 150 ? 12 : 80);
+      double density = t < 150 ? 0.1 + 0.5 * random.nextDouble() : 0.02 + 0.08 * random.nextDouble();
+
+      Map<Integer, Set<Integer>> context = randomContext(random, n, m, density);
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      h.init(context);
+      h.compute();
+
+      assertEquals( pairwiseSimplifiedConcepts(context), h.listAllSimplifiedConcepts() );
+
+      h.close();
+    }
+  }
+
+  /**
+   * The concepts by closing every subset of the objects owning at least one attribute.
+   */
+  private static <O, A> Set<Concept<O, A>> bruteForceConcepts(Map<O, Set<A>> context) {
+    List<O> objects = new ArrayList<>();
+    Set<A> attributes = new HashSet<>();
+    for (Map.Entry<O, Set<A>> e : context.entrySet()) {
+      if (e.getValue().isEmpty()) continue;
+      objects.add(e.getKey());
+      attributes.addAll(e.getValue());
+    }
+
+    Set<Concept<O, A>> concepts = new HashSet<>();
+    for (int subset = 0; subset < (1 << objects.size()); ++subset) {
+      Set<A> intent = new HashSet<>(attributes);
+      for (int i = 0; i < objects.size(); ++i) {
+        if ((subset & (1 << i)) != 0) {
+          intent.retainAll(context.get(objects.get(i)));
+        }
+      }
+
+      Set<O> extent = new HashSet<>();
+      for (O o : objects) {
+        if (context.get(o).containsAll(intent)) {
+          extent.add(o);
+        }
+      }
+
+      if (!extent.isEmpty() || !intent.isEmpty()) {
+        concepts.add(new Concept<>(extent, intent));
+      }
+    }
+    return concepts;
+  }
+
+  @Test
+  public void testBoundedConceptsOnRandomContexts() {
+    Random random = new Random(20191026);
+    int[][] bounds = { {0, -1, 0, -1}, {2, 2, 1, -1}, {1, 1, 1, -1}, {1, 3, 2, 4}, {0, -1, 0, 2}, {3, -1, 0, -1} };
+    for (int t = 0; t < 100; ++t) {
+      Map<Integer, Set<Integer>> context = randomContext(random, 1 + random.nextInt(12), 1 + random.nextInt(10),
+                                                         0.1 + 0.5 * random.nextDouble());
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      h.init(context);
+      h.compute();
+
+      Set<Concept<Integer, Integer>> all_concepts = bruteForceConcepts(context);
+      assertEquals( all_concepts, h.listAllConcepts() );
+
+      for (int[] b : bounds) {
+        Set<Concept<Integer, Integer>> concepts = new HashSet<>();
+        Set<Set<Integer>> extents = new HashSet<>();
+        for (Concept<Integer, Integer> c : all_concepts) {
+          int e_sz = c.getExtent().size(), i_sz = c.getIntent().size();
+          if (e_sz >= b[0] && (b[1] < 0 || e_sz <= b[1]) && i_sz >= b[2] && (b[3] < 0 || i_sz <= b[3])) {
+            concepts.add(c);
+            extents.add(c.getExtent());
+          }
+        }
+
+        assertEquals( concepts, h.listConceptsLeastMost(b[0], b[1], b[2], b[3]) );
+        assertEquals( extents, h.listExtentsLeastMost(b[0], b[1], b[2], b[3]) );
+      }
+
+      h.close();
+    }
+  }
+
+  @Test
+  public void testIterateConceptsLeastMost() {
+    Random random = new Random(20191027);
+    for (int t = 0; t < 50; ++t) {
+      Map<Integer, Set<Integer>> context = randomContext(random, 1 + random.nextInt(30), 1 + random.nextInt(20),
+                                                         0.05 + 0.3 * random.nextDouble());
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      h.init(context);
+      h.compute();
+
+      Set<Concept<Integer, Integer>> concepts = new HashSet<>();
+      int n = 0;
+      for (Iterator<Concept<Integer, Integer>> it = h.iterateConceptsLeastMost(2, 2, 1, -1); it.hasNext(); ++n) {
+        concepts.add(it.next());
+      }
+
+      assertEquals( concepts.size(), n );
+      assertEquals( h.listConceptsLeastMost(2, 2, 1, -1), concepts );
+      assertEquals( h.listAllConcepts().size(), h.streamConceptsLeastMost(0, -1, 0, -1).count() );
+
+      h.close();
+    }
+  }
+
+  @Test
+  public void testListPairExtents() {
+    Random random = new Random(20191028);
+    int[][] bounds = { {0, -1}, {1, -1}, {2, -1}, {1, 1}, {2, 3} };
+    for (int t = 0; t < 200; ++t) {
+      Map<Integer, Set<Integer>> context = randomContext(random, 1 + random.nextInt(t < 100 ? 6 : 40),
+                                                         1 + random.nextInt(20), 0.05 + 0.4 * random.nextDouble());
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      h.init(context);
+      h.compute();
+
+      for (int[] b : bounds) {
+        assertEquals( h.listExtentsLeastMost(2, 2, b[0], b[1]), h.listPairExtents(b[0], b[1]) );
+      }
+
+      h.close();
+    }
+  }
+
+  /**
+   * The timing of listPairExtents against the general listExtentsLeastMost(2, 2, 1, -1) on sparse random contexts
+   * (a few tokens per label), which is skipped unless run by:
+   *   mvn test -Dtest=HermesTest#benchmarkListPairExtents -Dbenchmark=true
+   */
+  @Test
+  public void benchmarkListPairExtents() {
+    assumeTrue( Boolean.getBoolean("benchmark") );
+
+    Random random = new Random(20191101);
+    int[][] sizes = { {2000, 1000}, {10000, 5000}, {50000, 20000} };
+    for (int[] size : sizes) {
+      Map<Integer, Set<Integer>> context = new HashMap<>();
+      for (int o = 0; o < size[0]; ++o) {
+        Set<Integer> attributes = new HashSet<>();
+        for (int k = 1 + random.nextInt(5); k > 0; --k) {
+          attributes.add(random.nextInt(size[1]));
+        }
+        context.put(o, attributes);
+      }
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      h.init(context);
+      h.compute();
+
+      long start = System.nanoTime();
+      Set<Set<Integer>> pairs = h.listPairExtents(1, -1);
+      long pair_millis = (System.nanoTime() - start) / 1000000;
+
+      start = System.nanoTime();
+      Set<Set<Integer>> extents = h.listExtentsLeastMost(2, 2, 1, -1);
+      long lattice_millis = (System.nanoTime() - start) / 1000000;
+
+      assertEquals( extents, pairs );
+      System.out.println(String.format("#Objects: %6d, #Attributes: %6d, #Pairs: %6d, listPairExtents: %6d ms, " +
+                                       "listExtentsLeastMost: %6d ms.",
+                                       size[0], size[1], pairs.size(), pair_millis, lattice_millis));
+      h.close();
+    }
+  }
+
+  @Test
+  public void testInitFromIdentities() {
+    Random random = new Random(20191029);
+    for (int t = 0; t < 50; ++t) {
+      Map<Integer, Set<Integer>> context = randomContext(random, 1 + random.nextInt(15), 1 + random.nextInt(10),
+                                                         0.1 + 0.4 * random.nextDouble());
+
+      List<Integer> objects = new ArrayList<>(context.keySet());
+      List<Integer> attributes = new ArrayList<>();
+      for (int a = 0; a < 10; ++a) {
+        attributes.add(a);
+      }
+
+      int[][] rows = new int[objects.size()][];
+      for (int i = 0; i < rows.length; ++i) {
+        rows[i] = new int[context.get(objects.get(i)).size()];
+        int j = 0;
+        for (int a : context.get(objects.get(i))) {
+          rows[i][j++] = a;
+        }
+      }
+
+      Hermes<Integer, Integer> h1 = new Hermes<>();
+      h1.init(context);
+      h1.compute();
+
+      Hermes<Integer, Integer> h2 = new Hermes<>();
+      h2.init(objects, attributes, rows);
+      h2.compute();
+
+      int[] row_offsets = new int[rows.length + 1];
+      for (int i = 0; i < rows.length; ++i) {
+        row_offsets[i + 1] = row_offsets[i] + rows[i].length;
+      }
+      int[] columns = new int[row_offsets[rows.length]];
+      IncidenceBuilder incidences = new IncidenceBuilder();
+      for (int i = rows.length - 1; i >= 0; --i) {
+        for (int j = 0; j < rows[i].length; ++j) {
+          columns[row_offsets[i] + j] = rows[i][j];
+          incidences.add(i, rows[i][j]);
+          incidences.add(i, rows[i][j]);
+        }
+      }
+
+      Hermes<Integer, Integer> h3 = new Hermes<>();
+      h3.init(objects, attributes, row_offsets, columns);
+      h3.compute();
+
+      Hermes<Integer, Integer> h4 = new Hermes<>();
+      h4.init(objects, attributes, incidences);
+      h4.compute();
+
+      assertEquals( h1.listAllSimplifiedConcepts(), h2.listAllSimplifiedConcepts() );
+      assertEquals( h1.listAllConcepts(), h2.listAllConcepts() );
+      assertEquals( h1.listAllSimplifiedConcepts(), h3.listAllSimplifiedConcepts() );
+      assertEquals( h1.listAllConcepts(), h3.listAllConcepts() );
+      assertEquals( h1.listAllSimplifiedConcepts(), h4.listAllSimplifiedConcepts() );
+      assertEquals( h1.listAllConcepts(), h4.listAllConcepts() );
+
+      h1.close();
+      h2.close();
+      h3.close();
+      h4.close();
+    }
+  }
+
+  @Test
+  public void testSimplificationOnSharedExecutor() {
+    Random random = new Random(20191025);
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    // NOTE: large enough to be sliced into several clarification and domination tasks.
+    Map<Integer, Set<Integer>> context = randomContext(random, 5000, 2500, 0.002);
+
+    Hermes<Integer, Integer> h = new Hermes<>(pool);
+    h.init(context);
+    h.compute();
+
+    assertEquals( pairwiseSimplifiedConcepts(context), h.listAllSimplifiedConcepts() );
+
+    h.close();
+    pool.shutdown();
+  }
+
+  private static Set<Integer> randomAttributes(Random random, int m, double density) {
+    Set<Integer> attributes = new HashSet<>();
+    for (int a = 0; a < m; ++a) {
+      if (random.nextDouble() < density) {
+        attributes.add(a);
+      }
+    }
+    return attributes;
+  }
+
+  private static void assertSameAsBatch(Map<Integer, Set<Integer>> context, Hermes<Integer, Integer> h,
+                                        boolean b_concepts) {
+    Hermes<Integer, Integer> batch = new Hermes<>();
+    batch.init(context);
+    batch.compute();
+
+    assertEquals( batch.listAllSimplifiedConcepts(), h.listAllSimplifiedConcepts() );
+    assertEquals( pairwiseSimplifiedConcepts(context), h.listAllSimplifiedConcepts() );
+    if (b_concepts) {
+      assertEquals( batch.listAllConcepts(), h.listAllConcepts() );
+      assertEquals( batch.listPairExtents(0, -1), h.listPairExtents(0, -1) );
+    }
+
+    batch.close();
+  }
+
+  @Test
+  public void testIncrementalUpdatesOnRandomContexts() {
+    Random random = new Random(20191030);
+    for (int t = 0; t < 60; ++t) {
+      boolean b_small = t < 50;
+      int n = 1 + random.nextInt(b_small ? 12 : 300);
+      int m = 1 + random.nextInt(b_small ? 10 : 80);
+      double density = b_small ? 0.1 + 0.4 * random.nextDouble() : 0.02 + 0.08 * random.nextDouble();
+
+      Map<Integer, Set<Integer>> context = randomContext(random, n, m, density);
+
+      Hermes<Integer, Integer> h = new Hermes<>();
+      if (t % 3 == 0) {
+        // NOTE: the int identity init leaves the objects and attributes to be indexed by the first update.
+        List<Integer> objects = new ArrayList<>(context.keySet());
+        List<Integer> attributes = new ArrayList<>();
+        for (int a = 0; a < m; ++a) {
+          attributes.add(a);
+        }
+
+        int[][] rows = new int[objects.size()][];
+        for (int i = 0; i < rows.length; ++i) {
+          rows[i] = new int[context.get(objects.get(i)).size()];
+          int j = 0;
+          for (int a : context.get(objects.get(i))) {
+            rows[i][j++] = a;
+          }
+        }
+        h.init(objects, attributes, rows);
+      } else {
+        h.init(context);
+      }
+      h.compute();
+
+      for (int u = 0; u < (b_small ? 20 : 40); ++u) {
+        int r = random.nextInt(10);
+        if (r < 3 && !context.isEmpty()) {
+          Integer o = new ArrayList<>(context.keySet()).get(random.nextInt(context.size()));
+          assertEquals( !context.get(o).isEmpty(), h.removeObject(o) );
+          context.remove(o);
+        } else {
+          // NOTE: new objects, changed objects and new attributes.
+          int o = r < 7 ? n + u : random.nextInt(n + u + 1);
+          Set<Integer> attributes = randomAttributes(random, m + (r == 9 ? 2 : 0), density);
+          h.addObject(o, attributes);
+          context.put(o, attributes);
+        }
+
+        if (b_small || u % 10 == 9) {
+          assertSameAsBatch(context, h, b_small);
+        }
+      }
+
+      h.close();
+    }
+  }
+
+  @Test
+  public void testIncrementalUpdatesBeforeCompute() {
+    Random random = new Random(20191031);
+    Map<Integer, Set<Integer>> context = randomContext(random, 10, 8, 0.3);
+
+    Hermes<Integer, Integer> h = new Hermes<>();
+    for (Map.Entry<Integer, Set<Integer>> e : context.entrySet()) {
+      h.addObject(e.getKey(), e.getValue());
+    }
+    h.removeObject(0);
+    context.remove(0);
+
+    // NOTE: the context is updated before compute, which builds the relations in one go.
+    assertEquals( new HashSet<Pair<Set<Integer>, Set<Integer>>>(), h.listAllSimplifiedConcepts() );
+    h.compute();
+    assertSameAsBatch(context, h, true);
+
+    h.close();
+    h.addObject(1, new HashSet<>(Arrays.asList(1, 2)));
+    assertEquals( new HashSet<>(Arrays.asList(new Pair<Set<Integer>, Set<Integer>>(
+                    new HashSet<>(Arrays.asList(1)), new HashSet<>(Arrays.asList(1, 2))))),
+                  h.listAllSimplifiedConcepts() );
+  }
 }
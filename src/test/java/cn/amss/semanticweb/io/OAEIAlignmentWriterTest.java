@@ -0,0 +1,76 @@
+/*
+ * OAEIAlignmentWriterTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.io;
+
+import static org.junit.Assert.assertEquals;
+
+import cn.amss.semanticweb.alignment.Mapping;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OAEIAlignmentWriterTest
+{
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Mapping reference() throws Exception {
+    InputStream in = this.getClass().getResourceAsStream("/oaei/conference/alignment/conference-ekaw.rdf");
+    return new XMLAlignReader(in).getMapping();
+  }
+
+  @Test
+  public void testSameAsContent() throws Exception {
+    Mapping m = reference();
+
+    final List<Long> progress = new ArrayList<>();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OAEIAlignmentWriter writer = new OAEIAlignmentWriter(out);
+    writer.setProgressCallback(new LongConsumer() {
+      @Override
+      public void accept(long n) {
+        progress.add(n);
+      }
+    }, 5);
+    writer.write(m);
+    writer.close();
+
+    assertEquals( new OAEIAlignmentOutput(m, "").getContent(), new String(out.toByteArray(), StandardCharsets.UTF_8) );
+    assertEquals( m.size(), writer.getNumberOfCells() );
+    assertEquals( m.size() / 5 + 1, progress.size() );
+    assertEquals( Long.valueOf(m.size()), progress.get(progress.size() - 1) );
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Mapping m = reference();
+
+    File plain = folder.newFile("alignment.rdf");
+    new OAEIAlignmentOutput(m, plain.getPath()).write();
+    assertEquals( new OAEIAlignmentOutput(m, "").getContent(),
+                  new String(Files.readAllBytes(plain.toPath()), StandardCharsets.UTF_8) );
+
+    File gzip = folder.newFile("alignment.rdf.gz");
+    new OAEIAlignmentOutput(m, gzip.getPath()).write();
+    try (InputStream in = new GZIPInputStream(new FileInputStream(gzip))) {
+      assertEquals( m, new XMLAlignReader(in).getMapping() );
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * XMLAlignReaderTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.io;
+
+import static org.junit.Assert.assertEquals;
+
+import cn.amss.semanticweb.alignment.Mapping;
+import cn.amss.semanticweb.alignment.MappingCell;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XMLAlignReaderTest
+{
+  private static final String ALIGNMENT = "/oaei/conference/alignment/conference-ekaw.rdf";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private byte[] bytes() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = this.getClass().getResourceAsStream(ALIGNMENT)) {
+      byte[] buffer = new byte[4096];
+      for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+        out.write(buffer, 0, n);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static Mapping read(String file_path) throws Exception {
+    final Mapping m = new Mapping();
+    long n = XMLAlignReader.read(file_path, new Consumer<MappingCell>() {
+      @Override
+      public void accept(MappingCell c) {
+        m.add(c);
+      }
+    });
+    assertEquals( m.size(), n );
+    return m;
+  }
+
+  @Test
+  public void testReadCompressed() throws Exception {
+    Mapping expected = new XMLAlignReader(this.getClass().getResourceAsStream(ALIGNMENT)).getMapping();
+
+    File plain = folder.newFile("alignment.rdf");
+    try (FileOutputStream out = new FileOutputStream(plain)) {
+      out.write(bytes());
+    }
+    assertEquals( expected, read(plain.getPath()) );
+    assertEquals( expected, new XMLAlignReader(plain.getPath()).getMapping() );
+
+    File gzip = folder.newFile("alignment.rdf.gz");
+    try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(gzip))) {
+      out.write(bytes());
+    }
+    assertEquals( expected, read(gzip.getPath()) );
+
+    File zip = folder.newFile("alignment.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry("alignment/"));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("alignment/conference-ekaw.rdf"));
+      out.write(bytes());
+      out.closeEntry();
+    }
+    assertEquals( expected, read(zip.getPath()) );
+    assertEquals( expected, new XMLAlignReader(zip.getPath()).getMapping() );
+  }
+}
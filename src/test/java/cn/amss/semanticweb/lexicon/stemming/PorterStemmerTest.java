@@ -33,4 +33,30 @@ public class PorterStemmerTest
       assertEquals ( o, stemmer.mutate(s) );
     }
   }
+
+  @Test
+  public void testStemIntoBuffer() throws IOException {
+    PorterStemmer stemmer = new PorterStemmer();
+    StemCache cache = new StemCache(64);
+    StringBuilder out = new StringBuilder();
+
+    InputStream sample = this.getClass().getResourceAsStream("/porter/voc-50l.txt");
+    BufferedReader br1 = new BufferedReader(new InputStreamReader(sample));
+
+    InputStream output = this.getClass().getResourceAsStream("/porter/output-50l.txt");
+    BufferedReader br2 = new BufferedReader(new InputStreamReader(output));
+
+    String s = null, o = null;
+    while ( (s = br1.readLine()) != null && (o = br2.readLine()) != null ) {
+      out.setLength(0);
+      stemmer.stem(s, out);
+      assertEquals ( o, out.toString() );
+
+      assertEquals ( o, cache.stem(s) );
+      assertEquals ( o, cache.stem(s) );
+    }
+
+    assertEquals ( cache.getHitCount(), cache.getMissCount() );
+    assertEquals ( 64, cache.getCapacity() );
+  }
 }
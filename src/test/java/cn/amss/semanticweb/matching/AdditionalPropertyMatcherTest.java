@@ -0,0 +1,108 @@
+/*
+ * AdditionalPropertyMatcherTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.matching;
+
+import cn.amss.semanticweb.model.OntModelWrapper;
+import cn.amss.semanticweb.alignment.Mapping;
+
+import java.io.File;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+
+public class AdditionalPropertyMatcherTest
+{
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final int NUMBER_OF_PROPERTIES = 8;
+
+  /**
+   * Each property i links the instance i to the instance i + 1, and the instance i + 2 to the instance 0.
+   */
+  private File ontology(String name, String ns) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\"?>\n");
+    sb.append("<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n");
+    sb.append("         xmlns:owl=\"http://www.w3.org/2002/07/owl#\"\n");
+    sb.append("         xmlns:x=\"").append(ns).append("\">\n");
+    sb.append("  <owl:Class rdf:about=\"").append(ns).append("Thing\"/>\n");
+    for (int i = 0; i < NUMBER_OF_PROPERTIES; ++i) {
+      sb.append("  <owl:ObjectProperty rdf:about=\"").append(ns).append("p").append(i).append("\"/>\n");
+    }
+    for (int i = 0; i < NUMBER_OF_PROPERTIES + 2; ++i) {
+      sb.append("  <x:Thing rdf:about=\"").append(ns).append("i").append(i).append("\"/>\n");
+    }
+    for (int i = 0; i < NUMBER_OF_PROPERTIES; ++i) {
+      sb.append("  <rdf:Description rdf:about=\"").append(ns).append("i").append(i).append("\">");
+      sb.append("<x:p").append(i).append(" rdf:resource=\"").append(ns).append("i").append(i + 1).append("\"/>");
+      sb.append("</rdf:Description>\n");
+      sb.append("  <rdf:Description rdf:about=\"").append(ns).append("i").append(i + 2).append("\">");
+      sb.append("<x:p").append(i).append(" rdf:resource=\"").append(ns).append("i0\"/>");
+      sb.append("</rdf:Description>\n");
+    }
+    sb.append("</rdf:RDF>\n");
+
+    File f = folder.newFile(name + ".rdf");
+    try (Writer w = new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)) {
+      w.write(sb.toString());
+    }
+    return f;
+  }
+
+  private static Mapping match(OntModelWrapper source, OntModelWrapper target, ForkJoinPool pool) {
+    Mapping instance_anchors = new Mapping();
+    for (int i = 0; i < NUMBER_OF_PROPERTIES + 2; ++i) {
+      instance_anchors.add("http://a.org/i" + i, "http://b.org/i" + i);
+    }
+
+    AdditionalPropertyMatcher matcher = MatcherFactory.createAdditionalPropertyMatcher();
+    matcher.setSourceTargetOntModelWrapper(source, target);
+    matcher.setExecutor(pool);
+    matcher.addInstanceAnchors(instance_anchors);
+
+    Mapping mappings = new Mapping();
+    matcher.mapObjectProperties(mappings);
+    return mappings;
+  }
+
+  @Test
+  public void testAdditionalPropertyMatcherOnTDB2() throws Exception {
+    File a = ontology("a", "http://a.org/");
+    File b = ontology("b", "http://b.org/");
+
+    Mapping expected = new Mapping();
+    for (int i = 0; i < NUMBER_OF_PROPERTIES; ++i) {
+      expected.add("http://a.org/p" + i, "http://b.org/p" + i);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    OntModelWrapper source = new OntModelWrapper(a.getPath());
+    OntModelWrapper target = new OntModelWrapper(b.getPath());
+    assertEquals( expected, match(source, target, pool) );
+    source.close();
+    target.close();
+
+    // NOTE: the read transactions of the datasets are bound to this thread, not to the threads of the pool.
+    OntModelWrapper tdb_source = new OntModelWrapper(a.getPath(), folder.newFolder("a").getPath());
+    OntModelWrapper tdb_target = new OntModelWrapper(b.getPath(), folder.newFolder("b").getPath());
+    assertEquals( expected, match(tdb_source, tdb_target, pool) );
+    tdb_source.close();
+    tdb_target.close();
+
+    pool.shutdown();
+  }
+}
@@ -10,11 +10,13 @@ package cn.amss.semanticweb.matching;
 import cn.amss.semanticweb.model.OntModelWrapper;
 import cn.amss.semanticweb.alignment.Mapping;
 import cn.amss.semanticweb.io.XMLAlignReader;
+import cn.amss.semanticweb.lexicon.stemming.StemCache;
 
 import java.io.InputStream;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class LexicalMatcherTest
 {
@@ -44,4 +46,95 @@ public class LexicalMatcherTest
 
     lm.close();
   }
+
+  @Test
+  public void testLexicalMatcherOnStreamingMode() throws Exception {
+    InputStream inSource = this.getClass().getResourceAsStream("/oaei/conference/Conference.owl");
+    InputStream inTarget = this.getClass().getResourceAsStream("/oaei/conference/ekaw.owl");
+
+    OntModelWrapper source = new OntModelWrapper(inSource, true);
+    OntModelWrapper target = new OntModelWrapper(inTarget, true);
+
+    LexicalMatcher lm = MatcherFactory.createLexicalMatcher();
+
+    lm.setSourceTargetOntModelWrapper(source, target);
+    lm.setExtractType(true, true);
+
+    Mapping mappings = new Mapping();
+    lm.mapOntClasses(mappings);
+    lm.mapDatatypeProperties(mappings);
+    lm.mapObjectProperties(mappings);
+
+    InputStream inAlignment = this.getClass().getResourceAsStream("/oaei/conference/alignment/conference-ekaw.rdf");
+
+    XMLAlignReader alignReader = new XMLAlignReader(inAlignment);
+
+    assertEquals (alignReader.getMapping(), mappings);
+
+    lm.close();
+  }
+
+  @Test
+  public void testMatcherRunner() throws Exception {
+    InputStream inSource = this.getClass().getResourceAsStream("/oaei/conference/Conference.owl");
+    InputStream inTarget = this.getClass().getResourceAsStream("/oaei/conference/ekaw.owl");
+
+    OntModelWrapper source = new OntModelWrapper(inSource);
+    OntModelWrapper target = new OntModelWrapper(inTarget);
+
+    LexicalMatcher lm = MatcherFactory.createLexicalMatcher();
+
+    lm.setSourceTargetOntModelWrapper(source, target);
+    lm.setExtractType(true, true);
+
+    MatcherRunner runner = new MatcherRunner(lm, 3);
+    Mapping mappings = runner.run(MatcherRunner.Pass.ONT_CLASSES,
+                                  MatcherRunner.Pass.DATATYPE_PROPERTIES,
+                                  MatcherRunner.Pass.OBJECT_PROPERTIES);
+
+    InputStream inAlignment = this.getClass().getResourceAsStream("/oaei/conference/alignment/conference-ekaw.rdf");
+
+    XMLAlignReader alignReader = new XMLAlignReader(inAlignment);
+
+    assertEquals (alignReader.getMapping(), mappings);
+
+    Mapping classes = new Mapping();
+    lm.mapOntClasses(classes);
+    assertEquals (classes, runner.getMapping(MatcherRunner.Pass.ONT_CLASSES));
+    assertTrue (runner.getMillis(MatcherRunner.Pass.OBJECT_PROPERTIES) >= 0);
+    assertEquals (-1, runner.getMillis(MatcherRunner.Pass.INSTANCES));
+
+    lm.close();
+  }
+
+  @Test
+  public void testStemCache() throws Exception {
+    OntModelWrapper source = new OntModelWrapper(this.getClass().getResourceAsStream("/oaei/conference/Conference.owl"));
+    OntModelWrapper target = new OntModelWrapper(this.getClass().getResourceAsStream("/oaei/conference/ekaw.owl"));
+
+    LexicalMatcher lm1 = MatcherFactory.createLexicalMatcher();
+    LexicalMatcher lm2 = MatcherFactory.createLexicalMatcher();
+    assertTrue (lm1.getStemCache() != lm2.getStemCache());
+
+    StemCache cache = new StemCache(64);
+    lm2.setStemCache(cache);
+
+    Mapping m1 = new Mapping(), m2 = new Mapping();
+    lm1.setSourceTargetOntModelWrapper(source, target);
+    lm1.mapOntClasses(m1);
+
+    assertEquals (0, cache.getHitCount() + cache.getMissCount());
+
+    lm2.setSourceTargetOntModelWrapper(source, target);
+    lm2.mapOntClasses(m2);
+
+    // NOTE: the small cache evicts, but the stems are the same.
+    assertEquals (m1, m2);
+    assertTrue (cache.getMissCount() > 0);
+    assertTrue (cache.size() <= cache.getCapacity());
+    assertTrue (lm1.getStemCache().getMissCount() > 0);
+
+    lm1.close();
+    lm2.close();
+  }
 }
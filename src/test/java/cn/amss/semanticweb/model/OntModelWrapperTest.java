@@ -7,10 +7,33 @@
 
 package cn.amss.semanticweb.model;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Set;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Arrays;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.vocabulary.RDFS;
 
 public class OntModelWrapperTest
 {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testOntModelWrapper() {
     String conference_url = "https://raw.githubusercontent.com/icgw/FCA-Map/master/src/test/resources/oaei/conference/Conference.owl";
@@ -19,4 +42,200 @@ public class OntModelWrapperTest
     String ekaw_url = "https://raw.githubusercontent.com/icgw/FCA-Map/master/src/test/resources/oaei/conference/ekaw.owl";
     OntModelWrapper ekaw = new OntModelWrapper(ekaw_url);
   }
+
+  private static Set<String> uris(Set<? extends Resource> resources) {
+    Set<String> s = new HashSet<>();
+    for (Resource r : resources) {
+      s.add(r.isAnon() ? "_:" : r.getURI());
+    }
+    return s;
+  }
+
+  @Test
+  public void testStreamingMode() {
+    for (String file : new String[] { "/oaei/conference/Conference.owl", "/oaei/conference/ekaw.owl" }) {
+      OntModelWrapper m1 = new OntModelWrapper(this.getClass().getResourceAsStream(file));
+      OntModelWrapper m2 = new OntModelWrapper(this.getClass().getResourceAsStream(file), true);
+
+      assertEquals( uris(m1.getInstances()),           uris(m2.getInstances()) );
+      assertEquals( uris(m1.getOntProperties()),       uris(m2.getOntProperties()) );
+      assertEquals( uris(m1.getDatatypeProperties()),  uris(m2.getDatatypeProperties()) );
+      assertEquals( uris(m1.getObjectProperties()),    uris(m2.getObjectProperties()) );
+      assertEquals( uris(m1.getOntClasses()),          uris(m2.getOntClasses()) );
+      assertEquals( m1.getOntClasses().size(),         m2.getOntClasses().size() );
+
+      m1.close();
+      m2.close();
+    }
+  }
+
+  private static final String INSTANCES_RDF =
+    "<?xml version=\"1.0\"?>\n" +
+    "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n" +
+    "         xmlns:rdfs=\"http://www.w3.org/2000/01/rdf-schema#\"\n" +
+    "         xmlns:owl=\"http://www.w3.org/2002/07/owl#\"\n" +
+    "         xmlns:skos=\"http://www.w3.org/2004/02/skos/core#\"\n" +
+    "         xmlns:ex=\"http://example.org/\">\n" +
+    "  <owl:Class rdf:about=\"http://example.org/City\">\n" +
+    "    <rdfs:subClassOf><owl:Restriction><owl:onProperty rdf:resource=\"http://example.org/in\"/>" +
+    "<owl:someValuesFrom rdf:resource=\"http://example.org/Country\"/></owl:Restriction></rdfs:subClassOf>\n" +
+    "  </owl:Class>\n" +
+    "  <owl:Class rdf:about=\"http://example.org/Country\"/>\n" +
+    "  <owl:ObjectProperty rdf:about=\"http://example.org/in\"/>\n" +
+    "  <owl:TransitiveProperty rdf:about=\"http://example.org/near\"/>\n" +
+    "  <owl:DatatypeProperty rdf:about=\"http://example.org/population\"/>\n" +
+    "  <owl:AnnotationProperty rdf:about=\"http://example.org/note\"/>\n" +
+    "  <ex:City rdf:about=\"http://example.org/Paris\">\n" +
+    "    <rdfs:label>Paris</rdfs:label>\n" +
+    "    <rdfs:comment>The capital of France.</rdfs:comment>\n" +
+    "    <ex:population>2148000</ex:population>\n" +
+    "    <ex:in rdf:resource=\"http://example.org/France\"/>\n" +
+    "  </ex:City>\n" +
+    "  <ex:Country rdf:about=\"http://example.org/France\"><skos:prefLabel>France</skos:prefLabel></ex:Country>\n" +
+    "  <owl:Thing rdf:about=\"http://example.org/Seine\"><ex:near rdf:resource=\"http://example.org/Paris\"/></owl:Thing>\n" +
+    "  <skos:Concept rdf:about=\"http://example.org/Category\"/>\n" +
+    "  <rdf:Description rdf:about=\"http://example.org/Category\"><rdf:type rdf:resource=\"http://example.org/City\"/></rdf:Description>\n" +
+    "</rdf:RDF>\n";
+
+  @Test
+  public void testStreamingModeOnInstances() {
+    byte[] rdf = INSTANCES_RDF.getBytes(StandardCharsets.UTF_8);
+    OntModelWrapper m1 = new OntModelWrapper(new ByteArrayInputStream(rdf));
+    OntModelWrapper m2 = new OntModelWrapper(new ByteArrayInputStream(rdf), true);
+
+    assertEquals( new HashSet<>(Arrays.asList("http://example.org/Paris", "http://example.org/France",
+                                              "http://example.org/Seine")), uris(m2.getInstances()) );
+    assertEquals( uris(m1.getInstances()),           uris(m2.getInstances()) );
+    assertEquals( uris(m1.getOntProperties()),       uris(m2.getOntProperties()) );
+    assertEquals( uris(m1.getDatatypeProperties()),  uris(m2.getDatatypeProperties()) );
+    assertEquals( uris(m1.getObjectProperties()),    uris(m2.getObjectProperties()) );
+    assertEquals( uris(m1.getOntClasses()),          uris(m2.getOntClasses()) );
+
+    // NOTE: the comment, the datatype value and the four triples of the restriction are dropped.
+    assertEquals( 1, m2.getInstances().iterator().next().getModel()
+                       .listStatements(null, RDFS.label, (RDFNode) null).toList().size() );
+    assertEquals( 0, m2.getInstances().iterator().next().getModel()
+                       .listStatements(null, RDFS.comment, (RDFNode) null).toList().size() );
+    assertEquals( m1.getNumberOfTriples() - 6, m2.getNumberOfTriples() );
+
+    m1.close();
+    m2.close();
+  }
+
+  @Test
+  public void testTDB2Mode() throws Exception {
+    String file = this.getClass().getResource("/oaei/conference/ekaw.owl").getPath();
+    String tdb_directory = folder.newFolder("ekaw").getPath();
+
+    OntModelWrapper m1 = new OntModelWrapper(file);
+    OntModelWrapper m2 = new OntModelWrapper(file, tdb_directory);
+
+    assertEquals( uris(m1.getInstances()),  uris(m2.getInstances()) );
+    assertEquals( uris(m1.getOntClasses()), uris(m2.getOntClasses()) );
+    assertEquals( m1.getOntProperties().size(), m2.getOntProperties().size() );
+
+    Set<String> classes = uris(m2.getOntClasses());
+    m2.close();
+
+    // NOTE: the dataset is reused, so the file is never opened again.
+    OntModelWrapper m3 = new OntModelWrapper("not-exist.owl", tdb_directory);
+    assertEquals( classes, uris(m3.getOntClasses()) );
+
+    m1.close();
+    m3.close();
+  }
+
+  @Test
+  public void testTDB2ModeFailure() throws Exception {
+    String file = this.getClass().getResource("/oaei/conference/ekaw.owl").getPath();
+    String tdb_directory = folder.newFolder("failure").getPath();
+
+    try {
+      new OntModelWrapper("not-exist.owl", tdb_directory);
+      fail("A missing file should fail an empty dataset.");
+    } catch (IllegalArgumentException e) {
+      assertTrue( e.getMessage().contains("not-exist.owl") );
+    }
+
+    // NOTE: the failed wrapper released the dataset, so it is loaded on this thread as usual.
+    OntModelWrapper m1 = new OntModelWrapper(file);
+    OntModelWrapper m2 = new OntModelWrapper(file, tdb_directory);
+    assertEquals( uris(m1.getOntClasses()), uris(m2.getOntClasses()) );
+
+    m1.close();
+    m2.close();
+  }
+
+  @Test
+  public void testOntModelLoader() {
+    String conference = this.getClass().getResource("/oaei/conference/Conference.owl").getPath();
+    String ekaw = this.getClass().getResource("/oaei/conference/ekaw.owl").getPath();
+
+    OntModelLoader loader = new OntModelLoader(2);
+    loader.add(conference);
+    loader.add(ekaw, true);
+
+    List<OntModelWrapper> wrappers = loader.load();
+    OntModelWrapper m1 = new OntModelWrapper(conference);
+    OntModelWrapper m2 = new OntModelWrapper(ekaw);
+
+    assertEquals( uris(m1.getOntClasses()), uris(wrappers.get(0).getOntClasses()) );
+    assertEquals( uris(m2.getOntClasses()), uris(wrappers.get(1).getOntClasses()) );
+    assertEquals( m1.getNumberOfTriples(), loader.getNumberOfTriples(0) );
+    assertEquals( wrappers.get(1).getNumberOfTriples(), loader.getNumberOfTriples(1) );
+
+    for (OntModelWrapper w : wrappers) {
+      w.close();
+    }
+    m1.close();
+    m2.close();
+  }
+
+  @Test
+  public void testOntModelLoaderFailure() {
+    String conference = this.getClass().getResource("/oaei/conference/Conference.owl").getPath();
+
+    OntModelLoader loader = new OntModelLoader(2);
+    loader.add(conference);
+    loader.add(conference + ".missing");
+
+    try {
+      loader.load();
+      fail("A missing file should fail the loading.");
+    } catch (IllegalArgumentException e) {
+      assertTrue( e.getMessage().contains(".missing") );
+    }
+    assertEquals( -1L, loader.getNumberOfTriples(1) );
+  }
+
+  private static Set<String> labels(Resource r, List<Property> predicates) {
+    Set<String> s = new HashSet<>();
+    for (Property p : predicates) {
+      for (StmtIterator it = r.listProperties(p); it.hasNext(); ) {
+        RDFNode o = it.nextStatement().getObject();
+        if (o.isLiteral() && !o.asLiteral().getString().equals("")) {
+          s.add(o.asLiteral().getString());
+        }
+      }
+    }
+    return s;
+  }
+
+  @Test
+  public void testLabelIndex() {
+    OntModelWrapper m = new OntModelWrapper(this.getClass().getResourceAsStream("/oaei/conference/ekaw.owl"));
+
+    List<Property> predicates = Arrays.asList(RDFS.label, RDFS.comment);
+    for (List<Property> ps : Arrays.asList(LabelIndex.DEFAULT_LABEL_PREDICATES, predicates)) {
+      OntClass any = m.getOntClasses().iterator().next();
+      LabelIndex index = new LabelIndex(any.getModel(), ps);
+      for (Resource r : m.getOntClasses()) {
+        assertEquals( labels(r, ps), index.getLabels(r) );
+      }
+      for (Resource r : m.getOntProperties()) {
+        assertEquals( labels(r, ps), index.getLabels(r) );
+      }
+    }
+    m.close();
+  }
 }
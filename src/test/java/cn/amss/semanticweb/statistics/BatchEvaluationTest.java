@@ -0,0 +1,124 @@
+/*
+ * BatchEvaluationTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cn.amss.semanticweb.alignment.Mapping;
+import cn.amss.semanticweb.alignment.MappingCell;
+import cn.amss.semanticweb.io.OAEIAlignmentWriter;
+import cn.amss.semanticweb.util.ConfusionMatrix;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchEvaluationTest
+{
+  private static final String DBKWIK = "http://dbkwik.webdatacommons.org/";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static Mapping alignment(int from, int to) {
+    Mapping m = new Mapping();
+    for (int i = from; i < to; ++i) {
+      m.add(DBKWIK + "a.wikia.com/class/c" + i, DBKWIK + "b.wikia.com/class/c" + i);
+      m.add(DBKWIK + "a.wikia.com/property/p" + i, DBKWIK + "b.wikia.com/property/p" + i);
+      m.add(DBKWIK + "a.wikia.com/resource/r" + i, DBKWIK + "b.wikia.com/resource/r" + (i % 7 == 0 ? -i : i));
+    }
+    return m;
+  }
+
+  @Test
+  public void testBatchEvaluation() throws Exception {
+    Mapping reference = alignment(0, 100);
+    reference.add(DBKWIK + "a.wikia.com/resource/r1000", "null");
+
+    BatchEvaluation batch = new BatchEvaluation(reference, 3);
+    batch.setDuplicateFree(true, true);
+    for (int k = 0; k < 6; ++k) {
+      batch.add("sweep," + k, alignment(k * 10, 100 + k * 10));
+    }
+    Mapping weak = alignment(0, 100);
+    weak.add(new MappingCell(DBKWIK + "a.wikia.com/resource/r1000", DBKWIK + "b.wikia.com/resource/r5", "=", "0.3"));
+    batch.add("weak", weak);
+
+    List<BatchEvaluation.Result> results = batch.evaluate();
+    assertEquals( 7, results.size() );
+
+    for (int k = 0; k < 6; ++k) {
+      BatchEvaluation.Result r = results.get(k);
+      assertEquals( "sweep," + k, r.getName() );
+
+      Evaluation single = new Evaluation(reference, alignment(k * 10, 100 + k * 10));
+      ConfusionMatrix[] expected = {
+        single.evaluateInstances(true, true), single.evaluateProperties(true, true),
+        single.evaluateClasses(true, true), single.evaluateOverall(true, true)
+      };
+      for (BatchEvaluation.Category c : BatchEvaluation.Category.values()) {
+        assertEquals( expected[c.ordinal()].getTruePositive(),  r.getConfusionMatrix(c).getTruePositive() );
+        assertEquals( expected[c.ordinal()].getFalsePositive(), r.getConfusionMatrix(c).getFalsePositive() );
+        assertEquals( expected[c.ordinal()].getFalseNegative(), r.getConfusionMatrix(c).getFalseNegative() );
+      }
+      assertEquals( 100, r.getSize(BatchEvaluation.Category.CLASS) );
+      assertTrue( r.getMillis() >= 0 );
+    }
+
+    assertEquals( 100, results.get(0).getConfusionMatrix(BatchEvaluation.Category.CLASS).getTruePositive() );
+    assertEquals( 2, results.get(6).getConfusionMatrix(BatchEvaluation.Category.INSTANCE).getFalsePositive() -
+                     results.get(0).getConfusionMatrix(BatchEvaluation.Category.INSTANCE).getFalsePositive() );
+
+    batch.setThreshold(0.5);
+    results = batch.evaluate();
+    assertEquals( results.get(0).getConfusionMatrix(BatchEvaluation.Category.OVERALL).getFalsePositive(),
+                  results.get(6).getConfusionMatrix(BatchEvaluation.Category.OVERALL).getFalsePositive() );
+    // NOTE: the weak cell below the threshold is not counted either.
+    assertEquals( results.get(0).getSize(BatchEvaluation.Category.INSTANCE),
+                  results.get(6).getSize(BatchEvaluation.Category.INSTANCE) );
+    assertEquals( 300, results.get(6).getSize(BatchEvaluation.Category.OVERALL) );
+
+    StringBuilder csv = new StringBuilder();
+    batch.writeCSV(csv);
+    String[] lines = csv.toString().split("\n");
+    assertEquals( 1 + 7 * 4, lines.length );
+    assertTrue( lines[1].startsWith("\"sweep,0\",instance,") );
+
+    StringBuilder json = new StringBuilder();
+    batch.writeJSON(json);
+    assertTrue( json.toString().startsWith("[\n  {\"name\": \"sweep,0\", \"millis\": ") );
+    assertTrue( json.toString().contains("\"overall\": {\"precision\": ") );
+  }
+
+  @Test
+  public void testCompactSystems() throws Exception {
+    Mapping reference = alignment(0, 100);
+    String path = folder.newFile("system.rdf.gz").getPath();
+    try (OAEIAlignmentWriter writer = new OAEIAlignmentWriter(path, true)) {
+      writer.write(alignment(20, 120));
+    }
+
+    BatchEvaluation batch = new BatchEvaluation(reference, 2);
+    batch.add("mapping", alignment(20, 120));
+    batch.addFile("file", path);
+    List<BatchEvaluation.Result> results = batch.evaluate();
+
+    for (BatchEvaluation.Category c : BatchEvaluation.Category.values()) {
+      ConfusionMatrix expected = results.get(0).getConfusionMatrix(c);
+      ConfusionMatrix actual   = results.get(1).getConfusionMatrix(c);
+      assertEquals( expected.getTruePositive(),  actual.getTruePositive() );
+      assertEquals( expected.getFalsePositive(), actual.getFalsePositive() );
+      assertEquals( expected.getFalseNegative(), actual.getFalseNegative() );
+      assertEquals( results.get(0).getSize(c), results.get(1).getSize(c) );
+    }
+    assertEquals( 80, results.get(1).getConfusionMatrix(BatchEvaluation.Category.CLASS).getTruePositive() );
+  }
+}
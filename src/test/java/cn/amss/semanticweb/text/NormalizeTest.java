@@ -11,6 +11,8 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import java.util.Random;
+
 public class NormalizeTest
 {
   @Test
@@ -38,4 +40,35 @@ public class NormalizeTest
     String s1 = "Person's";
     assertEquals( "Person", Normalize.removeS(s1) );
   }
+
+  private static String chain(String s, boolean strip_diacritics) {
+    s = Normalize.normalizeCaseStyle(s);
+    if (strip_diacritics) {
+      s = Normalize.stripDiacritics(s);
+    }
+    return Normalize.removeS(s);
+  }
+
+  @Test
+  public void testNormalize() {
+    String[] samples = { "ISomeCamelCasedString", "camelCased_and_UNDERSCORED", "Person's", "Person's_Name",
+                         "hasAuthor's paper", "Björn's vídeo", "a_^b`c", "x's's", "it's_", " _A s ", "a @_]" };
+    for (String sample : samples) {
+      assertEquals( chain(sample, true),  Normalize.normalize(sample, true) );
+      assertEquals( chain(sample, false), Normalize.normalize(sample, false) );
+    }
+
+    Random random = new Random(20191030);
+    String alphabet = "aAbBsS09_ '\t^`@]-.";
+    for (int t = 0; t < 100000; ++t) {
+      char[] chars = new char[random.nextInt(12)];
+      for (int i = 0; i < chars.length; ++i) {
+        chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+      }
+      String sample = new String(chars);
+
+      assertEquals( sample, chain(sample, true),  Normalize.normalize(sample, true) );
+      assertEquals( sample, chain(sample, false), Normalize.normalize(sample, false) );
+    }
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * AlignmentIndexTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.util;
+
+import static org.junit.Assert.assertEquals;
+
+import cn.amss.semanticweb.alignment.Mapping;
+import cn.amss.semanticweb.alignment.MappingCell;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AlignmentIndexTest
+{
+  private static void add(Map<String, Set<String>> m, String k, String v) {
+    if (!m.containsKey(k)) {
+      m.put(k, new HashSet<String>());
+    }
+    m.get(k).add(v);
+  }
+
+  /**
+   * The counting of string indexes, i.e. the former ConfusionMatrix.
+   */
+  private static int[] count(Mapping system, Mapping reference, double threshold, boolean left, boolean right) {
+    Map<String, Set<String>> st = new HashMap<>();
+    Map<String, Set<String>> ts = new HashMap<>();
+    for (MappingCell mc : system) {
+      if (mc.getMeasure() < threshold) continue;
+      add(st, mc.getEntity1(), mc.getEntity2());
+      add(ts, mc.getEntity2(), mc.getEntity1());
+    }
+
+    Set<String> empty = Collections.emptySet();
+    int tp = 0, fp = 0, fn = 0;
+    for (MappingCell mc : reference) {
+      Set<String> targets = st.containsKey(mc.getEntity1()) ? st.get(mc.getEntity1()) : empty;
+      Set<String> sources = ts.containsKey(mc.getEntity2()) ? ts.get(mc.getEntity2()) : empty;
+      if (mc.getEntity2().equals("null")) {
+        fp += targets.size();
+      } else if (mc.getEntity1().equals("null")) {
+        fp += sources.size();
+      } else if (targets.contains(mc.getEntity2())) {
+        ++tp;
+        if (left) fp += sources.size() - 1;
+        if (right) fp += targets.size() - 1;
+      } else {
+        ++fn;
+        if (left) fp += sources.size();
+        if (right) fp += targets.size();
+      }
+    }
+    return new int[] { tp, fp, fn };
+  }
+
+  private static String entity(Random rand, String prefix) {
+    int i = rand.nextInt(60);
+    return i == 0 ? "null" : prefix + i;
+  }
+
+  @Test
+  public void testEvaluate() {
+    Random rand = new Random(23);
+
+    for (int round = 0; round < 50; ++round) {
+      Mapping reference = new Mapping();
+      for (int i = 0; i < 40; ++i) {
+        reference.add(entity(rand, "s"), entity(rand, "t"));
+      }
+
+      AlignmentIndex index = new AlignmentIndex(reference);
+      assertEquals( reference.size(), index.size() );
+
+      for (int k = 0; k < 5; ++k) {
+        Mapping system = new Mapping();
+        for (int i = 0; i < 200; ++i) {
+          system.add(new MappingCell(entity(rand, "s"), entity(rand, "t"), "=", rand.nextBoolean() ? "0.5" : "1.0"));
+        }
+
+        for (double threshold : new double[] { 0.0, 0.7 }) {
+          for (int b = 0; b < 4; ++b) {
+            boolean left = (b & 1) != 0, right = (b & 2) != 0;
+            int[] expected = count(system, reference, threshold, left, right);
+            ConfusionMatrix m = index.evaluate(system, threshold, left, right);
+            assertEquals( expected[0], m.getTruePositive() );
+            assertEquals( expected[1], m.getFalsePositive() );
+            assertEquals( expected[2], m.getFalseNegative() );
+          }
+        }
+
+        ConfusionMatrix m = new ConfusionMatrix(system, reference, true, true);
+        assertEquals( count(system, reference, 0.0, true, true)[1], m.getFalsePositive() );
+      }
+    }
+  }
+}
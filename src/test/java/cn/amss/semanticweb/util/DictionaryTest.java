@@ -0,0 +1,34 @@
+/*
+ * DictionaryTest.java
+ * Copyright (C) 2019 Guowei Chen <icgw@outlook.com>
+ *
+ * Distributed under terms of the GPL license.
+ */
+
+package cn.amss.semanticweb.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DictionaryTest
+{
+  @Test
+  public void testIntern() {
+    Dictionary<String> d = new Dictionary<>(2);
+
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals( i, d.intern("token" + i) );
+    }
+
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals( i, d.intern("token" + i) );
+      assertEquals( i, d.getId("token" + i) );
+      assertEquals( "token" + i, d.get(i) );
+    }
+
+    assertEquals( -1, d.getId("absent") );
+    assertEquals( 1000, d.size() );
+    assertEquals( 1000, d.keys().size() );
+  }
+}